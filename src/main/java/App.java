@@ -1,11 +1,26 @@
+import dao.ContextoDados;
 import gui.MainFrame;
+import java.util.List;
+import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 
 public class App {
     public static void main(String[] args) {
+        ContextoDados contexto = new ContextoDados();
+
         // Executar a interface gráfica na EDT (Event Dispatch Thread)
         SwingUtilities.invokeLater(() -> {
-            new MainFrame().setVisible(true);
+            new MainFrame(contexto).setVisible(true);
         });
+
+        // Enquanto a tela principal abre, lê os arquivos e monta os índices nesta thread
+        contexto.aquecer();
+
+        List<String> ignorados = contexto.getRegistrosIgnorados();
+        if (!ignorados.isEmpty()) {
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null,
+                    "Registros inválidos ignorados na leitura dos dados:\n" + String.join("\n", ignorados),
+                    "Dados", JOptionPane.WARNING_MESSAGE));
+        }
     }
 }
@@ -83,14 +83,14 @@ public class Disciplina {
     }
 
     public static Disciplina fromString(String linha) {
-        String[] dados = linha.split(";");
+        LeitorCampos campos = new LeitorCampos(linha);
         return new Disciplina(
-            Integer.parseInt(dados[0]),
-            dados[1],
-            dados[2],
-            Integer.parseInt(dados[3]),
-            Integer.parseInt(dados[4]),
-            dados[5]
+            campos.proximoInt(),
+            campos.proximoTexto(),
+            campos.proximoTexto(),
+            campos.proximoInt(),
+            campos.proximoInt(),
+            campos.proximoTexto()
         );
     }
 
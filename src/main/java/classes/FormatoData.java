@@ -0,0 +1,76 @@
+package classes;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Conversão de datas no formato dd/MM/yyyy usado nos arquivos e nas telas.
+ *
+ * O caso comum (ano de 4 dígitos, data válida) é montado e lido direto dos dígitos;
+ * o resto passa pelo DateTimeFormatter compartilhado, que também define as mensagens
+ * de erro e o ajuste de datas como 31/02.
+ */
+public final class FormatoData {
+    public static final String PADRAO = "dd/MM/yyyy";
+    public static final DateTimeFormatter FORMATADOR = DateTimeFormatter.ofPattern(PADRAO);
+
+    private FormatoData() {
+    }
+
+    public static String formatar(LocalDate data) {
+        int ano = data.getYear();
+        if (ano < 1000 || ano > 9999) {
+            return data.format(FORMATADOR);
+        }
+
+        char[] texto = new char[10];
+        escreverDigitos(texto, 0, data.getDayOfMonth(), 2);
+        texto[2] = '/';
+        escreverDigitos(texto, 3, data.getMonthValue(), 2);
+        texto[5] = '/';
+        escreverDigitos(texto, 6, ano, 4);
+        return new String(texto);
+    }
+
+    public static LocalDate converter(CharSequence texto) {
+        return converter(texto, 0, texto.length());
+    }
+
+    // Converte o trecho [inicio, fim) do texto
+    public static LocalDate converter(CharSequence texto, int inicio, int fim) {
+        if (fim - inicio == 10 && texto.charAt(inicio + 2) == '/' && texto.charAt(inicio + 5) == '/') {
+            int dia = lerDigitos(texto, inicio, 2);
+            int mes = lerDigitos(texto, inicio + 3, 2);
+            int ano = lerDigitos(texto, inicio + 6, 4);
+            if (dia >= 0 && mes >= 0 && ano >= 0) {
+                try {
+                    return LocalDate.of(ano, mes, dia);
+                } catch (DateTimeException e) {
+                    // Data fora do calendário: o formatador decide como tratar
+                }
+            }
+        }
+        return LocalDate.parse(texto.subSequence(inicio, fim), FORMATADOR);
+    }
+
+    private static void escreverDigitos(char[] destino, int inicio, int valor, int quantidade) {
+        for (int i = inicio + quantidade - 1; i >= inicio; i--) {
+            destino[i] = (char) ('0' + valor % 10);
+            valor /= 10;
+        }
+    }
+
+    // Valor dos dígitos no trecho, ou -1 se houver algum caractere que não é dígito
+    private static int lerDigitos(CharSequence texto, int inicio, int quantidade) {
+        int valor = 0;
+        for (int i = inicio; i < inicio + quantidade; i++) {
+            char c = texto.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,60 @@
+package classes;
+
+import java.time.LocalDate;
+
+/**
+ * Lê em sequência os campos de uma linha separada por ';' sem usar String.split.
+ *
+ * Inteiros e datas (dd/MM/yyyy) são convertidos direto do trecho da linha, sem criar
+ * substrings nem arrays; só os campos de texto geram uma String. A mesma instância
+ * pode ser reaproveitada para várias linhas com reiniciar.
+ */
+public final class LeitorCampos {
+    private static final char SEPARADOR = ';';
+
+    private String linha;
+    private int posicao;
+
+    public LeitorCampos(String linha) {
+        reiniciar(linha);
+    }
+
+    public LeitorCampos reiniciar(String linha) {
+        this.linha = linha;
+        this.posicao = 0;
+        return this;
+    }
+
+    public String proximoTexto() {
+        int fim = fimDoCampo();
+        String valor = linha.substring(posicao, fim);
+        avancar(fim);
+        return valor;
+    }
+
+    public int proximoInt() {
+        int fim = fimDoCampo();
+        int valor = Integer.parseInt(linha, posicao, fim, 10);
+        avancar(fim);
+        return valor;
+    }
+
+    public LocalDate proximaData() {
+        int fim = fimDoCampo();
+        LocalDate valor = FormatoData.converter(linha, posicao, fim);
+        avancar(fim);
+        return valor;
+    }
+
+    private int fimDoCampo() {
+        if (posicao > linha.length()) {
+            throw new IllegalArgumentException("Linha com campos a menos: " + linha);
+        }
+        int fim = linha.indexOf(SEPARADOR, posicao);
+        return fim < 0 ? linha.length() : fim;
+    }
+
+    private void avancar(int fimDoCampo) {
+        posicao = fimDoCampo + 1;
+    }
+}
@@ -0,0 +1,70 @@
+package classes;
+
+import java.time.LocalDate;
+
+/**
+ * Matrícula já combinada com os nomes do aluno, da disciplina e do professor,
+ * pronta para ser exibida em tabela. Os ids de cada um ficam junto, para a tabela saber
+ * quais linhas mudam quando um deles é alterado.
+ */
+public class LinhaMatricula {
+    private final int id;
+    private final int alunoId;
+    private final int disciplinaId;
+    private final int professorId;
+    private final String nomeAluno;
+    private final String nomeDisciplina;
+    private final String nomeProfessor;
+    private final LocalDate dataMatricula;
+    private final String status;
+
+    public LinhaMatricula(int id, int alunoId, int disciplinaId, int professorId, String nomeAluno,
+                          String nomeDisciplina, String nomeProfessor, LocalDate dataMatricula, String status) {
+        this.id = id;
+        this.alunoId = alunoId;
+        this.disciplinaId = disciplinaId;
+        this.professorId = professorId;
+        this.nomeAluno = nomeAluno;
+        this.nomeDisciplina = nomeDisciplina;
+        this.nomeProfessor = nomeProfessor;
+        this.dataMatricula = dataMatricula;
+        this.status = status;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getAlunoId() {
+        return alunoId;
+    }
+
+    public int getDisciplinaId() {
+        return disciplinaId;
+    }
+
+    // Professor da disciplina; 0 se a disciplina não existe mais
+    public int getProfessorId() {
+        return professorId;
+    }
+
+    public String getNomeAluno() {
+        return nomeAluno;
+    }
+
+    public String getNomeDisciplina() {
+        return nomeDisciplina;
+    }
+
+    public String getNomeProfessor() {
+        return nomeProfessor;
+    }
+
+    public LocalDate getDataMatricula() {
+        return dataMatricula;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+}
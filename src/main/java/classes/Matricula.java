@@ -1,7 +1,6 @@
 package classes;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 
 public class Matricula {
     private int id;
@@ -71,19 +70,17 @@ public class Matricula {
 
     @Override
     public String toString() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        return id + ";" + alunoId + ";" + disciplinaId + ";" + dataMatricula.format(formatter) + ";" + status;
+        return id + ";" + alunoId + ";" + disciplinaId + ";" + FormatoData.formatar(dataMatricula) + ";" + status;
     }
 
     public static Matricula fromString(String linha) {
-        String[] dados = linha.split(";");
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        LeitorCampos campos = new LeitorCampos(linha);
         return new Matricula(
-            Integer.parseInt(dados[0]),
-            Integer.parseInt(dados[1]),
-            Integer.parseInt(dados[2]),
-            LocalDate.parse(dados[3], formatter),
-            dados[4]
+            campos.proximoInt(),
+            campos.proximoInt(),
+            campos.proximoInt(),
+            campos.proximaData(),
+            campos.proximoTexto()
         );
     }
 }
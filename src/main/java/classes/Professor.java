@@ -72,13 +72,13 @@ public class Professor {
     }
 
     public static Professor fromString(String linha) {
-        String[] dados = linha.split(";");
+        LeitorCampos campos = new LeitorCampos(linha);
         return new Professor(
-            Integer.parseInt(dados[0]),
-            dados[1],
-            dados[2],
-            dados[3],
-            dados[4]
+            campos.proximoInt(),
+            campos.proximoTexto(),
+            campos.proximoTexto(),
+            campos.proximoTexto(),
+            campos.proximoTexto()
         );
     }
 
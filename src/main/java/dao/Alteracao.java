@@ -0,0 +1,39 @@
+package dao;
+
+/**
+ * Alteração avisada aos ouvintes de um DAO depois de gravada.
+ *
+ * RECARGA indica que o arquivo foi alterado por fora (outro processo) ou relido depois de
+ * uma gravação recusada: qualquer entidade pode ter mudado e não há id nem entidade.
+ */
+public final class Alteracao<T> {
+    public enum Tipo {
+        INCLUSAO,
+        ALTERACAO,
+        EXCLUSAO,
+        RECARGA
+    }
+
+    private final Tipo tipo;
+    private final int id;
+    private final T entidade;
+
+    Alteracao(Tipo tipo, int id, T entidade) {
+        this.tipo = tipo;
+        this.id = id;
+        this.entidade = entidade;
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    // A entidade gravada; na exclusão, a que foi removida
+    public T getEntidade() {
+        return entidade;
+    }
+}
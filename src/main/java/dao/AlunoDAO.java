@@ -1,100 +1,137 @@
 package dao;
 
 import classes.Aluno;
-import java.io.*;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class AlunoDAO {
     private static final String ARQUIVO = "dados/alunos.txt";
-    private static int proximoId = 1;
+    private static final CodecEntidade<Aluno> CODEC =
+            new CodecEntidade<>(Aluno::fromString, Aluno::toString, Aluno::getId, Aluno::setId);
+    private final Repositorio<Aluno> repositorio;
+    private final IndiceUnico<String, Aluno> indiceMatricula;
+    private final IndiceTrigramas<Aluno> indiceTexto;
+    private final IndiceInvertido<Aluno> indicePesquisa;
 
-    public AlunoDAO() {
-        criarDiretorioSeNaoExistir();
-        carregarProximoId();
-    }
+    // Ordenações aceitas por listar; empates são desfeitos pelo id
+    public enum Ordem {
+        ID(Aluno::getId),
+        NOME(aluno -> IndiceOrdenado.texto(aluno.getNome())),
+        MATRICULA(Aluno::getMatricula);
+
+        private final Function<Aluno, ? extends Comparable<?>> chave;
 
-    private void criarDiretorioSeNaoExistir() {
-        File dir = new File("dados");
-        if (!dir.exists()) {
-            dir.mkdirs();
+        Ordem(Function<Aluno, ? extends Comparable<?>> chave) {
+            this.chave = chave;
         }
     }
 
-    private void carregarProximoId() {
-        List<Aluno> alunos = listarTodos();
-        if (!alunos.isEmpty()) {
-            proximoId = alunos.stream().mapToInt(Aluno::getId).max().orElse(0) + 1;
-        }
+    public AlunoDAO() {
+        repositorio = Repositorio.doArquivo(ARQUIVO, CODEC);
+        indiceMatricula = repositorio.indice("matricula", () -> new IndiceUnico<>(Aluno::getMatricula, "Matrícula já existe!"));
+        indiceTexto = repositorio.indice("texto", () -> new IndiceTrigramas<>(aluno -> aluno.getNome() + " " + aluno.getMatricula()));
+        indicePesquisa = repositorio.indice("pesquisa", () -> new IndiceInvertido<Aluno>()
+                .campo(Aluno::getNome, 3)
+                .campo(Aluno::getEmail, 1));
     }
 
     public void salvar(Aluno aluno) {
-        if (aluno.getId() == 0) {
-            aluno.setId(proximoId++);
-        }
-        
-        List<Aluno> alunos = listarTodos();
-        boolean encontrado = false;
-        
-        for (int i = 0; i < alunos.size(); i++) {
-            if (alunos.get(i).getId() == aluno.getId()) {
-                alunos.set(i, aluno);
-                encontrado = true;
-                break;
-            }
-        }
-        
-        if (!encontrado) {
-            alunos.add(aluno);
-        }
-        
-        salvarTodos(alunos);
+        repositorio.salvar(aluno);
+    }
+
+    // Salva todos com uma única gravação no arquivo; se algum for recusado (chave
+    // duplicada), nenhum é gravado
+    public void salvarLote(Collection<Aluno> alunos) {
+        repositorio.salvarLote(alunos);
     }
 
     public void excluir(int id) {
-        List<Aluno> alunos = listarTodos();
-        alunos.removeIf(aluno -> aluno.getId() == id);
-        salvarTodos(alunos);
+        repositorio.excluir(id);
+    }
+
+    public void excluirLote(Collection<Integer> ids) {
+        repositorio.excluirLote(ids);
     }
 
     public Aluno buscarPorId(int id) {
-        return listarTodos().stream()
-                .filter(aluno -> aluno.getId() == id)
-                .findFirst()
-                .orElse(null);
+        return repositorio.buscarPorId(id);
     }
 
     public List<Aluno> listarTodos() {
-        List<Aluno> alunos = new ArrayList<>();
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(ARQUIVO))) {
-            String linha;
-            while ((linha = reader.readLine()) != null) {
-                if (!linha.trim().isEmpty()) {
-                    alunos.add(Aluno.fromString(linha));
-                }
-            }
-        } catch (FileNotFoundException e) {
-            // Arquivo ainda não existe, retorna lista vazia
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        
-        return alunos;
-    }
-
-    private void salvarTodos(List<Aluno> alunos) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(ARQUIVO))) {
-            for (Aluno aluno : alunos) {
-                writer.write(aluno.toString());
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        return repositorio.listarTodos();
+    }
+
+    // Página em ordem de id com os de id maior que depoisDoId (0 para a primeira página)
+    public Pagina<Aluno> listar(int depoisDoId, int limite) {
+        return repositorio.listar(depoisDoId, limite);
+    }
+
+    // Página na ordem escolhida, depois do cursor da página anterior (null para a primeira)
+    public Pagina<Aluno> listar(Ordem ordem, Cursor depois, int limite) {
+        return repositorio.listar(indiceOrdenado(ordem), depois, limite);
+    }
+
+    // Só os ids, na ordem escolhida; as entidades são buscadas depois com buscarPorIds
+    public int[] listarIds(Ordem ordem) {
+        return repositorio.listarIds(indiceOrdenado(ordem));
+    }
+
+    // Chamado por ContextoDados.aquecer()
+    void aquecer() {
+        repositorio.aquecer(indiceOrdenado(Ordem.ID));
+    }
+
+    // Chamado por ContextoDados.getRegistrosIgnorados()
+    List<String> registrosIgnorados() {
+        return repositorio.registrosIgnorados();
+    }
+
+    // Na ordem dos ids, com null no lugar dos que foram excluídos
+    public List<Aluno> buscarPorIds(int[] ids) {
+        return repositorio.buscarPorIds(ids);
+    }
+
+    // Índice de cada ordenação criado no primeiro uso
+    private IndiceOrdenado<Aluno> indiceOrdenado(Ordem ordem) {
+        return repositorio.indiceOrdenado(ordem.name(), ordem.chave);
+    }
+
+    // Até limite alunos cujo nome ou matrícula contém as palavras digitadas, sem diferenciar acentos
+    // e maiúsculas; palavras de 1 ou 2 letras valem como início de palavra. Os que começam
+    // pelo texto digitado vêm primeiro
+    public List<Aluno> buscarPorTexto(String texto, int limite) {
+        return repositorio.buscarPorTexto(indiceTexto, texto, limite);
+    }
+
+    // Pesquisa por palavras no nome e no email, sem diferenciar acentos e maiúsculas; todas
+    // as palavras precisam aparecer (inteiras ou como início de palavra). Os mais relevantes
+    // vêm primeiro, e quem tem a palavra no nome fica à frente de quem a tem só no email
+    public List<Aluno> pesquisar(String consulta, int limite) {
+        return repositorio.pesquisar(indicePesquisa, consulta, limite);
+    }
+
+    // Avisado de cada inclusão, alteração e exclusão feita por qualquer AlunoDAO, na thread
+    // que gravou; quem guarda o ouvinte por mais tempo que o DAO deve removê-lo ao terminar
+    public void adicionarOuvinte(Consumer<Alteracao<Aluno>> ouvinte) {
+        repositorio.adicionarOuvinte(ouvinte);
+    }
+
+    public void removerOuvinte(Consumer<Alteracao<Aluno>> ouvinte) {
+        repositorio.removerOuvinte(ouvinte);
+    }
+
+    // Percorre todos sem montar uma lista; filtros com findFirst/anyMatch param no primeiro encontrado
+    public Stream<Aluno> stream() {
+        return repositorio.stream();
     }
 
     public boolean existeMatricula(String matricula) {
-        return listarTodos().stream()
-                .anyMatch(aluno -> aluno.getMatricula().equals(matricula));
+        return repositorio.ler(() -> indiceMatricula.contem(matricula));
+    }
+
+    public Aluno buscarPorMatricula(String matricula) {
+        return repositorio.buscarPorIndice(indiceMatricula, matricula);
     }
 }
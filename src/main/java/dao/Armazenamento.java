@@ -0,0 +1,63 @@
+package dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Forma como um arquivo de entidades é lido e gravado no disco.
+ * O CacheEntidades mantém o estado em memória e delega a persistência para cá.
+ */
+interface Armazenamento<T> {
+
+    // Indica se o arquivo mudou desde a última leitura ou gravação feita por este objeto
+    boolean alteradoExternamente();
+
+    // Reaplica no cache o conteúdo do arquivo. Quando completo é true, ou quando a
+    // forma de armazenamento precisar reler tudo, limpar é chamado antes das
+    // entidades serem reenviadas.
+    void recarregar(boolean completo, Runnable limpar, Consumer<T> gravar, IntConsumer excluir);
+
+    void gravar(T entidade, Collection<T> todas);
+
+    void excluir(int id, Collection<T> todas);
+
+    // Grava várias entidades de uma vez; as formas de armazenamento que conseguem
+    // devem persistir o lote inteiro em uma única escrita
+    default void gravarLote(Collection<T> lote, Collection<T> todas) {
+        for (T entidade : lote) {
+            gravar(entidade, todas);
+        }
+    }
+
+    default void excluirLote(Collection<Integer> ids, Collection<T> todas) {
+        for (int id : ids) {
+            excluir(id, todas);
+        }
+    }
+
+    // Aguarda as gravações feitas até aqui chegarem ao disco. É chamado depois de
+    // salvar/excluir, fora dos bloqueios, para que gravações simultâneas possam
+    // dividir um único fsync (Sincronizacao.GRUPO)
+    default void sincronizar() {
+    }
+
+    // Índice de ids no disco (id -> posição no arquivo), para ler algumas entidades sem
+    // carregar o arquivo inteiro; null quando a forma de armazenamento não tem um ou ele
+    // não corresponde mais ao arquivo de dados
+    default IndicePaginas indicePorId() {
+        return null;
+    }
+
+    // Entidades nas posições dadas pelo índice de ids, na mesma ordem; null se não conseguir ler
+    default List<T> lerEm(long[] posicoes) {
+        return null;
+    }
+
+    // Registros que a última leitura não conseguiu decodificar e deixou de fora, para
+    // quem chama mostrar; vazio nas formas de armazenamento que recusam o arquivo inteiro
+    default List<String> registrosIgnorados() {
+        return List.of();
+    }
+}
@@ -0,0 +1,351 @@
+package dao;
+
+import classes.Matricula;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Formato binário de tamanho fixo para as matrículas. Cada registro é lido por posição
+ * (FileChannel.read com deslocamento), sem mapear o arquivo: o Java 11 não tem como
+ * desfazer um MappedByteBuffer, que seguraria a memória e o arquivo até o coletor de
+ * lixo passar. A carga completa percorre o arquivo em blocos de REGISTROS_POR_BLOCO.
+ *
+ * Cabeçalho de 8 bytes (MAGICO, VERSAO) seguido de registros de 17 bytes:
+ *   id (int) | alunoId (int) | disciplinaId (int) | dia epoch da data (int) | status (byte)
+ *
+ * Status 0 marca um slot livre (registro excluído), que é reaproveitado pela próxima
+ * inclusão. Alterações e exclusões regravam apenas o slot da matrícula; nenhuma
+ * leitura passa por conversão de texto.
+ *
+ * Cada carga completa grava o índice de ids (IndicePaginas, dados/matriculas.bin.idx) com
+ * a posição do slot de cada matrícula: enquanto o arquivo não mudar, buscarPorId lê só o
+ * slot pedido. A primeira gravação de slot depois disso faz o índice deixar de
+ * corresponder ao arquivo até a próxima carga completa.
+ *
+ * Na primeira abertura sem o .bin, as matrículas vêm de dados/matriculas.txt. O .txt
+ * fica como estava e não recebe mais as alterações: voltar ao modo texto lê esse
+ * conteúdo antigo.
+ */
+class ArmazenamentoBinarioMatricula implements Armazenamento<Matricula> {
+    static final int MAGICO = 0x4D415442; // "MATB"
+    static final int VERSAO = 1;
+    static final int TAMANHO_CABECALHO = 8;
+    static final int TAMANHO_REGISTRO = 17;
+    private static final int REGISTROS_POR_BLOCO = 4096;
+
+    private static final String[] STATUS = {null, "ATIVA", "CANCELADA", "CONCLUIDA"};
+
+    private final File arquivo;
+    private final File arquivoTexto;
+    private final File arquivoIndice;
+    private final SincronizadorGrupo sincronizador;
+    private final Map<Integer, Integer> slotPorId = new HashMap<>();
+    private final Deque<Integer> slotsLivres = new ArrayDeque<>();
+    private final List<String> registrosIgnorados = new ArrayList<>();
+    private int totalSlots = 0;
+    // Voláteis: consultados sem o monitor, com só o bloqueio de leitura do cache
+    private volatile Object versaoConhecida;
+    private volatile IndicePaginas indice;
+
+    ArmazenamentoBinarioMatricula(File arquivo, File arquivoTexto, File arquivoIndice) {
+        this.arquivo = arquivo;
+        this.arquivoTexto = arquivoTexto;
+        this.arquivoIndice = arquivoIndice;
+        this.sincronizador = new SincronizadorGrupo(arquivo);
+    }
+
+    @Override
+    public boolean alteradoExternamente() {
+        return !Objects.equals(Arquivos.versao(arquivo), versaoConhecida);
+    }
+
+    @Override
+    public synchronized void recarregar(boolean completo, Runnable limpar, Consumer<Matricula> gravar,
+                                        IntConsumer excluir) {
+        limpar.run();
+        slotPorId.clear();
+        slotsLivres.clear();
+        totalSlots = 0;
+        registrosIgnorados.clear();
+
+        if (!arquivo.exists() && arquivoTexto.exists()) {
+            migrarArquivoTexto();
+        }
+
+        IndicePaginas.Construtor construtor = new IndicePaginas.Construtor();
+        try {
+            lerArquivo(construtor, gravar);
+        } catch (NoSuchFileException e) {
+            // Sem matrículas ainda; o arquivo é criado na primeira gravação
+            construtor = null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler " + arquivo, e);
+        }
+
+        versaoConhecida = Arquivos.versao(arquivo);
+        if (construtor != null) {
+            try {
+                construtor.gravar(arquivoIndice, arquivo);
+            } catch (IOException e) {
+                // Sem o índice as buscas carregam o arquivo inteiro
+                e.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void gravar(Matricula matricula, Collection<Matricula> todas) {
+        gravarLote(List.of(matricula), todas);
+    }
+
+    @Override
+    public synchronized void gravarLote(Collection<Matricula> lote, Collection<Matricula> todas) {
+        // Codifica tudo antes de ocupar slots: um status inválido recusa o lote inteiro
+        List<ByteBuffer> registros = new ArrayList<>(lote.size());
+        for (Matricula matricula : lote) {
+            registros.add(codificar(matricula));
+        }
+
+        List<Integer> slots = new ArrayList<>(lote.size());
+        for (Matricula matricula : lote) {
+            Integer slot = slotPorId.get(matricula.getId());
+            if (slot == null) {
+                slot = slotsLivres.isEmpty() ? totalSlots++ : slotsLivres.poll();
+                slotPorId.put(matricula.getId(), slot);
+            }
+            slots.add(slot);
+        }
+        escreverSlots(slots, registros);
+    }
+
+    @Override
+    public synchronized void excluir(int id, Collection<Matricula> todas) {
+        excluirLote(List.of(id), todas);
+    }
+
+    @Override
+    public synchronized void excluirLote(Collection<Integer> ids, Collection<Matricula> todas) {
+        List<Integer> slots = new ArrayList<>();
+        List<ByteBuffer> vazios = new ArrayList<>();
+        for (int id : ids) {
+            Integer slot = slotPorId.remove(id);
+            if (slot != null) {
+                slots.add(slot);
+                vazios.add(ByteBuffer.allocate(TAMANHO_REGISTRO));
+            }
+        }
+        if (!slots.isEmpty()) {
+            escreverSlots(slots, vazios);
+            slotsLivres.addAll(slots);
+        }
+    }
+
+    @Override
+    public void sincronizar() {
+        if (ConfiguracaoArmazenamento.getSincronizacao() == ConfiguracaoArmazenamento.Sincronizacao.GRUPO) {
+            sincronizador.aguardar();
+        }
+    }
+
+    @Override
+    public IndicePaginas indicePorId() {
+        if (indice == null || !indice.atual()) {
+            indice = IndicePaginas.abrir(arquivoIndice);
+        }
+        return indice != null && indice.correspondeA(arquivo) ? indice : null;
+    }
+
+    // Lê só os slots pedidos, cada um com uma leitura posicional de TAMANHO_REGISTRO bytes
+    @Override
+    public List<Matricula> lerEm(long[] posicoes) {
+        List<Matricula> matriculas = new ArrayList<>(posicoes.length);
+        ByteBuffer registro = ByteBuffer.allocate(TAMANHO_REGISTRO);
+        try (FileChannel canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.READ)) {
+            for (long posicao : posicoes) {
+                registro.clear();
+                lerCompleto(canal, registro, posicao);
+                Matricula matricula = lerRegistro(registro, 0);
+                if (matricula == null) {
+                    // Slot liberado sem que o tamanho e a data do arquivo mudassem
+                    return null;
+                }
+                matriculas.add(matricula);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return matriculas;
+    }
+
+    // Lê a matrícula gravada a partir da posição do buffer, ou null se o slot está livre
+    private static Matricula lerRegistro(ByteBuffer dados, int posicao) {
+        byte status = dados.get(posicao + 16);
+        if (status <= 0 || status >= STATUS.length) {
+            return null;
+        }
+        return new Matricula(
+            dados.getInt(posicao),
+            dados.getInt(posicao + 4),
+            dados.getInt(posicao + 8),
+            LocalDate.ofEpochDay(dados.getInt(posicao + 12)),
+            STATUS[status]
+        );
+    }
+
+    @Override
+    public synchronized List<String> registrosIgnorados() {
+        return List.copyOf(registrosIgnorados);
+    }
+
+    synchronized int getTotalSlots() {
+        return totalSlots;
+    }
+
+    // Percorre os slots em blocos de REGISTROS_POR_BLOCO, com memória fixa qualquer que
+    // seja o tamanho do arquivo. Bytes de um registro incompleto no final são ignorados
+    private void lerArquivo(IndicePaginas.Construtor construtor, Consumer<Matricula> gravar) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            if (tamanho < TAMANHO_CABECALHO) {
+                return;
+            }
+            ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+            lerCompleto(canal, cabecalho, 0);
+            if (cabecalho.getInt(0) != MAGICO || cabecalho.getInt(4) != VERSAO) {
+                throw new IOException("Arquivo de matrículas binário inválido: " + arquivo);
+            }
+            long slots = (tamanho - TAMANHO_CABECALHO) / TAMANHO_REGISTRO;
+            if (slots > Integer.MAX_VALUE) {
+                throw new IOException("Arquivo de matrículas binário grande demais: " + arquivo);
+            }
+            totalSlots = (int) slots;
+
+            ByteBuffer bloco = ByteBuffer.allocate(REGISTROS_POR_BLOCO * TAMANHO_REGISTRO);
+            for (int primeiro = 0; primeiro < totalSlots; primeiro += REGISTROS_POR_BLOCO) {
+                int quantidade = Math.min(REGISTROS_POR_BLOCO, totalSlots - primeiro);
+                bloco.clear().limit(quantidade * TAMANHO_REGISTRO);
+                long posicaoBloco = posicaoDoSlot(primeiro);
+                lerCompleto(canal, bloco, posicaoBloco);
+                for (int i = 0; i < quantidade; i++) {
+                    Matricula matricula = lerRegistro(bloco, i * TAMANHO_REGISTRO);
+                    int slot = primeiro + i;
+                    if (matricula == null) {
+                        slotsLivres.add(slot);
+                    } else {
+                        slotPorId.put(matricula.getId(), slot);
+                        construtor.adicionar(matricula.getId(), posicaoDoSlot(slot));
+                        gravar.accept(matricula);
+                    }
+                }
+            }
+        }
+    }
+
+    // Preenche o buffer a partir da posição do arquivo, sem mexer na posição do canal
+    private static void lerCompleto(FileChannel canal, ByteBuffer buffer, long posicao) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer, posicao + buffer.position()) < 0) {
+                throw new EOFException("Registro incompleto em " + posicao);
+            }
+        }
+    }
+
+    private static long posicaoDoSlot(int slot) {
+        return TAMANHO_CABECALHO + (long) slot * TAMANHO_REGISTRO;
+    }
+
+    // Grava os registros nos slots correspondentes com o arquivo aberto uma só vez
+    private void escreverSlots(List<Integer> slots, List<ByteBuffer> registros) {
+        try (FileChannel canal = FileChannel.open(arquivo.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (canal.size() < TAMANHO_CABECALHO) {
+                canal.write(cabecalho(), 0);
+            }
+            for (int i = 0; i < slots.size(); i++) {
+                canal.write(registros.get(i), posicaoDoSlot(slots.get(i)));
+            }
+            switch (ConfiguracaoArmazenamento.getSincronizacao()) {
+                case IMEDIATA:
+                    canal.force(false);
+                    break;
+                case GRUPO:
+                    sincronizador.registrarGravacao();
+                    break;
+                default:
+                    break;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar " + arquivo, e);
+        }
+        versaoConhecida = Arquivos.versao(arquivo);
+    }
+
+    // O .txt não é apagado nem atualizado depois: fica com as matrículas do momento da
+    // migração. Linhas que não decodificam ficam de fora e são listadas em
+    // registrosIgnorados(), como no journal
+    private void migrarArquivoTexto() {
+        try (BufferedReader reader = Files.newBufferedReader(arquivoTexto.toPath(), StandardCharsets.UTF_8)) {
+            Arquivos.substituirAtomicamente(arquivo, out -> {
+                FileChannel canal = out.getChannel();
+                canal.write(cabecalho());
+                String linha;
+                int numero = 0;
+                while ((linha = reader.readLine()) != null) {
+                    numero++;
+                    if (linha.isBlank()) {
+                        continue;
+                    }
+                    ByteBuffer registro;
+                    try {
+                        registro = codificar(Matricula.fromString(linha));
+                    } catch (RuntimeException e) {
+                        if (registrosIgnorados.size() < ArmazenamentoJournal.MAXIMO_REGISTROS_IGNORADOS) {
+                            registrosIgnorados.add(arquivoTexto + ", linha " + numero + ": " + linha);
+                        }
+                        continue;
+                    }
+                    canal.write(registro);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao migrar " + arquivoTexto + " para " + arquivo, e);
+        }
+    }
+
+    private static ByteBuffer cabecalho() {
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_CABECALHO);
+        buffer.putInt(MAGICO).putInt(VERSAO).flip();
+        return buffer;
+    }
+
+    private static ByteBuffer codificar(Matricula matricula) {
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_REGISTRO);
+        buffer.putInt(matricula.getId())
+            .putInt(matricula.getAlunoId())
+            .putInt(matricula.getDisciplinaId())
+            .putInt((int) matricula.getDataMatricula().toEpochDay())
+            .put(codigoStatus(matricula.getStatus()))
+            .flip();
+        return buffer;
+    }
+
+    private static byte codigoStatus(String status) {
+        for (byte i = 1; i < STATUS.length; i++) {
+            if (STATUS[i].equals(status)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Status inválido: " + status);
+    }
+}
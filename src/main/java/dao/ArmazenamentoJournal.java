@@ -0,0 +1,359 @@
+package dao;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Armazenamento só de acréscimo (journal): cada salvar/excluir vira uma linha no fim do arquivo.
+ *
+ * Formato das linhas:
+ *   S;<entidade no formato texto>   inclusão ou alteração
+ *   E;<id>                          exclusão
+ *
+ * Ao abrir, as linhas são reaplicadas em ordem para reconstruir o estado atual. Uma
+ * linha final sem quebra de linha (gravação interrompida) é descartada. Uma linha que
+ * não decodifica é deixada de fora e listada em registrosIgnorados(); a compactação
+ * não a copia. Se o journal
+ * ainda não existe mas o arquivo texto sim, o journal é criado a partir dele.
+ *
+ * Quando a fração de registros superados (alterados depois ou excluídos) passa do
+ * limite configurado, o Compactador reescreve em segundo plano apenas as entidades
+ * vivas e troca o arquivo por rename atômico, sob o bloqueio exclusivo da entidade
+ * para que nenhum processo acrescente registros no arquivo antigo durante a troca.
+ */
+class ArmazenamentoJournal<T> implements Armazenamento<T> {
+    static final String GRAVACAO = "S;";
+    static final String EXCLUSAO = "E;";
+    // Só os primeiros registros ignorados são guardados, como nas recusas da importação
+    static final int MAXIMO_REGISTROS_IGNORADOS = 100;
+
+    private final File journal;
+    private final File arquivoTexto;
+    private final CodecEntidade<T> codec;
+    private final BloqueioArquivo bloqueioArquivo;
+    private final SincronizadorGrupo sincronizador;
+    // Volátil para alteradoExternamente não passar pelo monitor, que a compactação segura
+    // durante a cópia da cauda e a troca do arquivo
+    private volatile Object versaoConhecida;
+    private Object identificadorLido;
+    private long bytesLidos = 0;
+    private long registrosNoArquivo = 0;
+    private boolean aberto = false;
+    private boolean compactacaoPendente = false;
+    private final List<String> registrosIgnorados = new ArrayList<>();
+
+    ArmazenamentoJournal(File journal, File arquivoTexto, CodecEntidade<T> codec,
+                         BloqueioArquivo bloqueioArquivo) {
+        this.journal = journal;
+        this.arquivoTexto = arquivoTexto;
+        this.codec = codec;
+        this.bloqueioArquivo = bloqueioArquivo;
+        this.sincronizador = new SincronizadorGrupo(journal);
+    }
+
+    @Override
+    public boolean alteradoExternamente() {
+        return !Objects.equals(Arquivos.versao(journal), versaoConhecida);
+    }
+
+    @Override
+    public synchronized void recarregar(boolean completo, Runnable limpar, Consumer<T> gravar, IntConsumer excluir) {
+        if (!aberto && !journal.exists() && arquivoTexto.exists()) {
+            migrarArquivoTexto();
+        }
+
+        // Se o arquivo é o mesmo e só cresceu, basta reaplicar o final
+        boolean incremental = !completo && aberto
+                && Objects.equals(Arquivos.identificador(journal), identificadorLido)
+                && journal.length() >= bytesLidos;
+        if (!incremental) {
+            limpar.run();
+            bytesLidos = 0;
+            registrosNoArquivo = 0;
+            registrosIgnorados.clear();
+        }
+
+        try {
+            long fimUltimoRegistro = reaplicar(gravar, excluir);
+            if (!aberto && fimUltimoRegistro < journal.length()) {
+                descartarRegistroIncompleto(fimUltimoRegistro);
+            }
+        } catch (FileNotFoundException e) {
+            // Journal ainda não existe, cache fica vazio
+        } catch (IOException e) {
+            // Sem marcar a versão como lida: a próxima leitura relê o journal inteiro
+            aberto = false;
+            throw new UncheckedIOException("Falha ao ler " + journal, e);
+        }
+
+        aberto = true;
+        identificadorLido = Arquivos.identificador(journal);
+        versaoConhecida = Arquivos.versao(journal);
+    }
+
+    @Override
+    public synchronized void gravar(T entidade, Collection<T> todas) {
+        anexar(List.of(GRAVACAO + codec.codificar(entidade)));
+        verificarCompactacao(todas);
+    }
+
+    @Override
+    public synchronized void gravarLote(Collection<T> lote, Collection<T> todas) {
+        List<String> registros = new ArrayList<>(lote.size());
+        for (T entidade : lote) {
+            registros.add(GRAVACAO + codec.codificar(entidade));
+        }
+        anexar(registros);
+        verificarCompactacao(todas);
+    }
+
+    @Override
+    public synchronized void excluir(int id, Collection<T> todas) {
+        anexar(List.of(EXCLUSAO + id));
+        verificarCompactacao(todas);
+    }
+
+    @Override
+    public synchronized void excluirLote(Collection<Integer> ids, Collection<T> todas) {
+        List<String> registros = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            registros.add(EXCLUSAO + id);
+        }
+        anexar(registros);
+        verificarCompactacao(todas);
+    }
+
+    // Fora do monitor: o fsync em grupo não pode segurar as próximas gravações
+    @Override
+    public void sincronizar() {
+        if (ConfiguracaoArmazenamento.getSincronizacao() == ConfiguracaoArmazenamento.Sincronizacao.GRUPO) {
+            sincronizador.aguardar();
+        }
+    }
+
+    private void verificarCompactacao(Collection<T> todas) {
+        if (compactacaoPendente || registrosNoArquivo < ConfiguracaoArmazenamento.getMinimoRegistrosCompactacao()) {
+            return;
+        }
+
+        double fracaoLixo = 1.0 - (double) todas.size() / registrosNoArquivo;
+        if (fracaoLixo >= ConfiguracaoArmazenamento.getLimiteLixoCompactacao()) {
+            compactacaoPendente = true;
+            // Codificado aqui, ainda sob o bloqueio de escrita do cache: as entidades são as
+            // instâncias do cache, que outra gravação pode alterar enquanto o Compactador
+            // trabalha
+            List<String> retrato = new ArrayList<>(todas.size());
+            for (T entidade : todas) {
+                retrato.add(GRAVACAO + codec.codificar(entidade));
+            }
+            long fimRetrato = bytesLidos;
+            Compactador.agendar(() -> compactar(retrato, fimRetrato));
+        }
+    }
+
+    // Executado na thread do Compactador. O retrato é gravado sem bloquear os DAOs;
+    // só a cópia do que foi acrescentado depois dele e a troca do arquivo são feitas
+    // com o journal bloqueado.
+    private void compactar(List<String> retrato, long fimRetrato) {
+        long inicio = System.nanoTime();
+        File temporario = new File(journal.getPath() + ".compactando");
+
+        try {
+            try (FileOutputStream out = new FileOutputStream(temporario);
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                for (String registro : retrato) {
+                    writer.write(registro + "\n");
+                }
+                writer.flush();
+                out.getChannel().force(true);
+            }
+
+            bloqueioArquivo.adquirir(false);
+            try {
+                compactarSobBloqueio(retrato, fimRetrato, temporario, inicio);
+            } finally {
+                bloqueioArquivo.liberar();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            temporario.delete();
+        } finally {
+            synchronized (this) {
+                compactacaoPendente = false;
+            }
+        }
+    }
+
+    private synchronized void compactarSobBloqueio(List<String> retrato, long fimRetrato, File temporario, long inicio)
+            throws IOException {
+        if (!Objects.equals(Arquivos.versao(journal), versaoConhecida)) {
+            // O journal foi substituído ou recebeu registros de outro processo enquanto o
+            // retrato era gravado; a cauda não lida ficaria de fora do estado em memória
+            Files.deleteIfExists(temporario.toPath());
+            return;
+        }
+
+        long tamanhoAnterior = journal.length();
+        long registrosCauda = copiarCauda(fimRetrato, temporario);
+        Files.move(temporario.toPath(), journal.toPath(),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        bytesLidos = journal.length();
+        registrosNoArquivo = retrato.size() + registrosCauda;
+        identificadorLido = Arquivos.identificador(journal);
+        versaoConhecida = Arquivos.versao(journal);
+        Compactador.registrar(tamanhoAnterior - bytesLidos, System.nanoTime() - inicio);
+    }
+
+    // Acrescenta ao arquivo temporário os registros gravados após o retrato e
+    // retorna quantos eram
+    private long copiarCauda(long inicio, File destino) throws IOException {
+        byte[] cauda;
+        try (RandomAccessFile raf = new RandomAccessFile(journal, "r")) {
+            cauda = new byte[(int) (raf.length() - inicio)];
+            raf.seek(inicio);
+            raf.readFully(cauda);
+        }
+
+        long registros = 0;
+        for (byte b : cauda) {
+            if (b == '\n') {
+                registros++;
+            }
+        }
+
+        try (FileOutputStream out = new FileOutputStream(destino, true)) {
+            out.write(cauda);
+            out.getChannel().force(true);
+        }
+        return registros;
+    }
+
+    private long reaplicar(Consumer<T> gravar, IntConsumer excluir) throws IOException {
+        try (InputStream in = new FileInputStream(journal)) {
+            pular(in, bytesLidos);
+
+            byte[] bloco = new byte[64 * 1024];
+            byte[] linha = new byte[256];
+            int tamanhoLinha = 0;
+            int lidos;
+            while ((lidos = in.read(bloco)) != -1) {
+                for (int i = 0; i < lidos; i++) {
+                    byte b = bloco[i];
+                    if (b != '\n') {
+                        if (tamanhoLinha == linha.length) {
+                            linha = Arrays.copyOf(linha, tamanhoLinha * 2);
+                        }
+                        linha[tamanhoLinha++] = b;
+                        continue;
+                    }
+                    aplicar(linha, tamanhoLinha, gravar, excluir);
+                    bytesLidos += tamanhoLinha + 1;
+                    registrosNoArquivo++;
+                    tamanhoLinha = 0;
+                }
+            }
+        }
+        return bytesLidos;
+    }
+
+    // Decodifica o registro direto dos bytes, sem montar a linha inteira como String
+    private void aplicar(byte[] linha, int tamanho, Consumer<T> gravar, IntConsumer excluir) {
+        try {
+            if (tamanho >= 2 && linha[1] == ';') {
+                String conteudo = new String(linha, 2, tamanho - 2, StandardCharsets.UTF_8);
+                if (linha[0] == GRAVACAO.charAt(0)) {
+                    gravar.accept(codec.decodificar(conteudo));
+                } else if (linha[0] == EXCLUSAO.charAt(0)) {
+                    excluir.accept(Integer.parseInt(conteudo.trim()));
+                }
+            }
+        } catch (RuntimeException e) {
+            if (registrosIgnorados.size() < MAXIMO_REGISTROS_IGNORADOS) {
+                registrosIgnorados.add(journal + ", linha " + (registrosNoArquivo + 1) + ": "
+                        + new String(linha, 0, tamanho, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Override
+    public synchronized List<String> registrosIgnorados() {
+        return List.copyOf(registrosIgnorados);
+    }
+
+    // Acrescenta os registros com uma única escrita no fim do journal
+    private void anexar(List<String> registros) {
+        if (registros.isEmpty()) {
+            return;
+        }
+        StringBuilder texto = new StringBuilder();
+        for (String registro : registros) {
+            texto.append(registro).append('\n');
+        }
+        byte[] bytes = texto.toString().getBytes(StandardCharsets.UTF_8);
+        try (FileOutputStream out = new FileOutputStream(journal, true)) {
+            out.write(bytes);
+            bytesLidos += bytes.length;
+            registrosNoArquivo += registros.size();
+            switch (ConfiguracaoArmazenamento.getSincronizacao()) {
+                case IMEDIATA:
+                    out.getChannel().force(false);
+                    break;
+                case GRUPO:
+                    sincronizador.registrarGravacao();
+                    break;
+                default:
+                    break;
+            }
+        } catch (IOException e) {
+            // Pode ter sobrado um registro incompleto no fim; a próxima leitura relê o
+            // journal inteiro e ignora o que não for um registro válido
+            aberto = false;
+            throw new UncheckedIOException("Falha ao gravar " + journal, e);
+        }
+        identificadorLido = Arquivos.identificador(journal);
+        versaoConhecida = Arquivos.versao(journal);
+    }
+
+    private void descartarRegistroIncompleto(long tamanhoValido) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(journal, "rw")) {
+            raf.setLength(tamanhoValido);
+        }
+    }
+
+    private void migrarArquivoTexto() {
+        try (BufferedReader reader = Files.newBufferedReader(arquivoTexto.toPath(), StandardCharsets.UTF_8)) {
+            Arquivos.substituirAtomicamente(journal, out -> {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                String linha;
+                while ((linha = reader.readLine()) != null) {
+                    if (!linha.isBlank()) {
+                        writer.write(GRAVACAO + linha + "\n");
+                    }
+                }
+                writer.flush();
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao migrar " + arquivoTexto + " para " + journal, e);
+        }
+    }
+
+    private static void pular(InputStream in, long quantidade) throws IOException {
+        while (quantidade > 0) {
+            long pulados = in.skip(quantidade);
+            if (pulados <= 0) {
+                break;
+            }
+            quantidade -= pulados;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package dao;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Formato original: uma entidade por linha, arquivo reescrito inteiro a cada alteração.
+ * A reescrita vai para um temporário que substitui o arquivo por rename atômico.
+ *
+ * Cada reescrita também grava o índice de ids (IndicePaginas) com a posição de cada
+ * linha; uma leitura completa refaz o índice se ele não corresponder ao arquivo.
+ */
+class ArmazenamentoTexto<T> implements Armazenamento<T> {
+    // Fixo, como no journal: com o padrão da plataforma o mesmo arquivo mudava de
+    // conteúdo conforme a localidade de quem gravou
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    private final File arquivo;
+    private final File arquivoIndice;
+    private final CodecEntidade<T> codec;
+    // Voláteis: consultados com só o bloqueio de leitura do cache, por várias threads
+    private volatile Object versaoConhecida;
+    private volatile IndicePaginas indice;
+
+    ArmazenamentoTexto(File arquivo, File arquivoIndice, CodecEntidade<T> codec) {
+        this.arquivo = arquivo;
+        this.arquivoIndice = arquivoIndice;
+        this.codec = codec;
+    }
+
+    @Override
+    public boolean alteradoExternamente() {
+        return !Objects.equals(Arquivos.versao(arquivo), versaoConhecida);
+    }
+
+    @Override
+    public void recarregar(boolean completo, Runnable limpar, Consumer<T> gravar, IntConsumer excluir) {
+        limpar.run();
+
+        IndicePaginas.Construtor construtor = indicePorId() == null ? new IndicePaginas.Construtor() : null;
+        // Lido em bytes, não com BufferedReader, para saber a posição de cada linha
+        try (InputStream entrada = new FileInputStream(arquivo)) {
+            ByteArrayOutputStream linha = new ByteArrayOutputStream();
+            byte[] bloco = new byte[8192];
+            long inicioBloco = 0;
+            long inicioLinha = 0;
+            int lidos;
+            while ((lidos = entrada.read(bloco)) > 0) {
+                int inicio = 0;
+                for (int i = 0; i < lidos; i++) {
+                    if (bloco[i] == '\n') {
+                        linha.write(bloco, inicio, i - inicio);
+                        decodificarLinha(linha, inicioLinha, gravar, construtor);
+                        linha.reset();
+                        inicio = i + 1;
+                        inicioLinha = inicioBloco + inicio;
+                    }
+                }
+                linha.write(bloco, inicio, lidos - inicio);
+                inicioBloco += lidos;
+            }
+            decodificarLinha(linha, inicioLinha, gravar, construtor);
+        } catch (FileNotFoundException e) {
+            // Arquivo ainda não existe, cache fica vazio
+            construtor = null;
+        } catch (IOException e) {
+            // Sem marcar a versão como lida: o cache fica descarregado e a próxima leitura tenta de novo
+            throw new UncheckedIOException("Falha ao ler " + arquivo, e);
+        }
+
+        versaoConhecida = Arquivos.versao(arquivo);
+        if (construtor != null) {
+            gravarIndice(construtor);
+        }
+    }
+
+    private void decodificarLinha(ByteArrayOutputStream bytes, long posicao, Consumer<T> gravar,
+                                  IndicePaginas.Construtor construtor) {
+        String linha = bytes.toString(CHARSET);
+        if (linha.isBlank()) {
+            return;
+        }
+        if (linha.endsWith("\r")) {
+            linha = linha.substring(0, linha.length() - 1);
+        }
+        T entidade = codec.decodificar(linha);
+        gravar.accept(entidade);
+        if (construtor != null) {
+            construtor.adicionar(codec.id(entidade), posicao);
+        }
+    }
+
+    @Override
+    public void gravar(T entidade, Collection<T> todas) {
+        salvarTodos(todas);
+    }
+
+    @Override
+    public void excluir(int id, Collection<T> todas) {
+        salvarTodos(todas);
+    }
+
+    @Override
+    public void gravarLote(Collection<T> lote, Collection<T> todas) {
+        salvarTodos(todas);
+    }
+
+    @Override
+    public void excluirLote(Collection<Integer> ids, Collection<T> todas) {
+        salvarTodos(todas);
+    }
+
+    private void salvarTodos(Collection<T> todas) {
+        IndicePaginas.Construtor construtor = new IndicePaginas.Construtor();
+        try {
+            Arquivos.substituirAtomicamente(arquivo, out -> {
+                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, CHARSET));
+                long separador = System.lineSeparator().getBytes(CHARSET).length;
+                long posicao = 0;
+                for (T entidade : todas) {
+                    String linha = codec.codificar(entidade);
+                    construtor.adicionar(codec.id(entidade), posicao);
+                    writer.write(linha);
+                    writer.newLine();
+                    posicao += linha.getBytes(CHARSET).length + separador;
+                }
+                writer.flush();
+            });
+        } catch (IOException e) {
+            // O arquivo continua com o conteúdo anterior; quem salvou recebe o erro e o
+            // cache volta a ele na próxima leitura
+            throw new UncheckedIOException("Falha ao gravar " + arquivo, e);
+        }
+        versaoConhecida = Arquivos.versao(arquivo);
+        gravarIndice(construtor);
+    }
+
+    private void gravarIndice(IndicePaginas.Construtor construtor) {
+        try {
+            construtor.gravar(arquivoIndice, arquivo);
+        } catch (IOException e) {
+            // Sem o índice as consultas carregam o arquivo inteiro, como antes
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public IndicePaginas indicePorId() {
+        if (indice == null || !indice.atual()) {
+            indice = IndicePaginas.abrir(arquivoIndice);
+        }
+        return indice != null && indice.correspondeA(arquivo) ? indice : null;
+    }
+
+    @Override
+    public List<T> lerEm(long[] posicoes) {
+        List<T> entidades = new ArrayList<>(posicoes.length);
+        try (RandomAccessFile dados = new RandomAccessFile(arquivo, "r")) {
+            ByteArrayOutputStream linha = new ByteArrayOutputStream();
+            byte[] bloco = new byte[512];
+            for (long posicao : posicoes) {
+                linha.reset();
+                dados.seek(posicao);
+                int lidos;
+                ler:
+                while ((lidos = dados.read(bloco)) > 0) {
+                    for (int i = 0; i < lidos; i++) {
+                        if (bloco[i] == '\n') {
+                            linha.write(bloco, 0, i);
+                            break ler;
+                        }
+                    }
+                    linha.write(bloco, 0, lidos);
+                }
+                String texto = linha.toString(CHARSET);
+                entidades.add(codec.decodificar(texto.endsWith("\r") ? texto.substring(0, texto.length() - 1) : texto));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } catch (RuntimeException e) {
+            // Linha que não é o começo de um registro: o índice ficou para trás sem que o
+            // tamanho e a data do arquivo mudassem; quem chama carrega o arquivo inteiro
+            return null;
+        }
+        return entidades;
+    }
+}
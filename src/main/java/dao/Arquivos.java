@@ -0,0 +1,90 @@
+package dao;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+
+/**
+ * Utilitários de arquivo usados pelas formas de armazenamento.
+ */
+final class Arquivos {
+
+    // Conteúdo gravado em substituirAtomicamente; writers sobre o stream devem ser
+    // esvaziados com flush, mas não fechados
+    interface Escrita {
+        void escrever(FileOutputStream out) throws IOException;
+    }
+
+    private Arquivos() {
+    }
+
+    // Grava o conteúdo em um temporário ao lado do destino, força para o disco e troca
+    // por rename atômico: quem lê o destino, ou o reabre depois de uma queda no meio da
+    // gravação, encontra o conteúdo antigo ou o novo inteiro, nunca um arquivo truncado
+    static void substituirAtomicamente(File destino, Escrita escrita) throws IOException {
+        boolean sincronizar = ConfiguracaoArmazenamento.getSincronizacao() != ConfiguracaoArmazenamento.Sincronizacao.NENHUMA;
+        substituirAtomicamente(destino, sincronizar, escrita);
+    }
+
+    // Com sincronizar false a troca continua atômica, mas sem esperar o disco; para
+    // arquivos que podem ser refeitos a partir dos dados. O temporário é apagado se a
+    // escrita falhar por qualquer motivo, inclusive exceções não verificadas
+    static void substituirAtomicamente(File destino, boolean sincronizar, Escrita escrita) throws IOException {
+        File temporario = new File(destino.getPath() + ".tmp");
+        boolean escrito = false;
+        try (FileOutputStream out = new FileOutputStream(temporario)) {
+            escrita.escrever(out);
+            if (sincronizar) {
+                out.getChannel().force(true);
+            }
+            escrito = true;
+        } finally {
+            if (!escrito) {
+                temporario.delete();
+            }
+        }
+
+        Files.move(temporario.toPath(), destino.toPath(),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        if (sincronizar) {
+            sincronizarDiretorio(destino);
+        }
+    }
+
+    // Grava no disco a entrada do diretório, para o rename sobreviver a uma queda de
+    // energia. Nem todo sistema permite abrir diretórios; nesse caso não faz nada
+    static void sincronizarDiretorio(File arquivo) {
+        File diretorio = arquivo.getAbsoluteFile().getParentFile();
+        try (FileChannel canal = FileChannel.open(diretorio.toPath(), StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Sem suporte (Windows): o rename já é atômico, só não é forçado
+        }
+    }
+
+    // Data de modificação (em nanossegundos quando o sistema suporta), tamanho e
+    // identificador do arquivo; null quando o arquivo não existe
+    static Object versao(File arquivo) {
+        try {
+            BasicFileAttributes atributos = Files.readAttributes(arquivo.toPath(), BasicFileAttributes.class);
+            return Arrays.asList(atributos.lastModifiedTime(), atributos.size(), atributos.fileKey());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Identificador do arquivo no sistema (inode), usado para saber se ele foi substituído
+    static Object identificador(File arquivo) {
+        try {
+            return Files.readAttributes(arquivo.toPath(), BasicFileAttributes.class).fileKey();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package dao;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bloqueio entre processos sobre um arquivo .lock de uma entidade (FileChannel.lock).
+ *
+ * Quem grava usa o bloqueio exclusivo, e também quem recarrega o cache, porque a
+ * recarga pode migrar, truncar ou reindexar o arquivo; quem só lê (as consultas pelo
+ * índice de ids) usa o compartilhado, para não ler uma gravação de outro processo pela
+ * metade. Dentro do mesmo processo as threads passam por uma ReentrantReadWriteLock
+ * antes de tocar no FileLock (que é da JVM inteira e recusaria um segundo lock
+ * sobreposto): várias threads dividem o compartilhado, a primeira bloqueia o arquivo e a
+ * última o libera.
+ *
+ * A mesma thread pode adquirir de novo sem bloquear o arquivo outra vez, desde que o
+ * pedido caiba no que já tem: compartilhado dentro de exclusivo, sim; exclusivo dentro
+ * de compartilhado é recusado com IllegalStateException, porque o FileLock em vigor não
+ * é exclusivo.
+ *
+ * Uso: adquirir(...) seguido de try/finally com liberar().
+ */
+final class BloqueioArquivo {
+    private static final Map<String, BloqueioArquivo> BLOQUEIOS = new HashMap<>();
+
+    private final File arquivo;
+    private final ReentrantReadWriteLock travaLocal = new ReentrantReadWriteLock();
+    // Modo de cada aquisição da thread (true = compartilhado), da mais externa, que
+    // definiu o bloqueio, para a mais interna
+    private final ThreadLocal<Deque<Boolean>> modos = ThreadLocal.withInitial(ArrayDeque::new);
+    // Threads com o compartilhado; só com o monitor deste objeto
+    private int leitores = 0;
+    private FileChannel canal;
+    private FileLock bloqueio;
+
+    private BloqueioArquivo(File arquivo) {
+        this.arquivo = arquivo;
+    }
+
+    static synchronized BloqueioArquivo para(File arquivo) {
+        return BLOQUEIOS.computeIfAbsent(arquivo.getAbsolutePath(), c -> new BloqueioArquivo(arquivo));
+    }
+
+    void adquirir(boolean compartilhado) {
+        Deque<Boolean> daThread = modos.get();
+        if (!daThread.isEmpty()) {
+            if (!compartilhado && daThread.peekFirst()) {
+                throw new IllegalStateException("Bloqueio exclusivo de " + arquivo
+                        + " pedido por quem já tem o compartilhado");
+            }
+            daThread.addLast(compartilhado);
+            return;
+        }
+
+        if (compartilhado) {
+            travaLocal.readLock().lock();
+            daThread.addLast(true);
+            synchronized (this) {
+                if (leitores++ == 0) {
+                    bloquearArquivo(true);
+                }
+            }
+        } else {
+            travaLocal.writeLock().lock();
+            daThread.addLast(false);
+            bloquearArquivo(false);
+        }
+    }
+
+    void liberar() {
+        Deque<Boolean> daThread = modos.get();
+        boolean compartilhado = daThread.removeLast();
+        if (!daThread.isEmpty()) {
+            return;
+        }
+
+        if (compartilhado) {
+            synchronized (this) {
+                if (--leitores == 0) {
+                    desbloquearArquivo();
+                }
+            }
+            travaLocal.readLock().unlock();
+        } else {
+            desbloquearArquivo();
+            travaLocal.writeLock().unlock();
+        }
+    }
+
+    private void bloquearArquivo(boolean compartilhado) {
+        try {
+            canal = FileChannel.open(arquivo.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            bloqueio = canal.lock(0, Long.MAX_VALUE, compartilhado);
+        } catch (IOException e) {
+            // Sem o arquivo de bloqueio segue só com a exclusão entre threads
+            e.printStackTrace();
+            fecharCanal();
+        }
+    }
+
+    private void desbloquearArquivo() {
+        try {
+            if (bloqueio != null) {
+                bloqueio.release();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            bloqueio = null;
+            fecharCanal();
+        }
+    }
+
+    private void fecharCanal() {
+        if (canal != null) {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            canal = null;
+        }
+    }
+}
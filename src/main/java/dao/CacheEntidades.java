@@ -0,0 +1,610 @@
+package dao;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Armazenamento em memória compartilhado por arquivo de entidades.
+ *
+ * O arquivo é lido uma única vez e mantido em um mapa indexado pelo id; todas as
+ * instâncias de DAO que apontam para o mesmo arquivo usam o mesmo cache. Cada
+ * salvar/excluir atualiza a memória e repassa a alteração ao Armazenamento
+ * (write-through). Se o arquivo for alterado ou removido por fora (outro processo,
+ * limpeza dos testes), a diferença de data/tamanho é detectada e o cache é recarregado.
+ *
+ * Os índices registrados com indice(...) são mantidos junto com o mapa e devem ser
+ * consultados dentro de ler(...), que garante o cache atualizado e o bloqueio.
+ *
+ * Concorrência: consultas usam o bloqueio de leitura de uma ReentrantReadWriteLock e
+ * não bloqueiam umas às outras; salvar/excluir e a recarga do arquivo usam o de
+ * escrita. Entre processos, a gravação acontece sob o bloqueio exclusivo do arquivo
+ * .lock da entidade (recarregando antes, se outro processo gravou). A releitura usa
+ * o mesmo bloqueio exclusivo, porque pode gravar; só a leitura direta pelo índice de
+ * ids usa o compartilhado, junto com o bloqueio de leitura do cache, e por isso não
+ * bloqueia as outras consultas. A verificação de alteração externa feita em cada
+ * consulta não passa pelo monitor do Armazenamento.
+ *
+ * Os ids novos vêm da SequenciaId da entidade (arquivo .seq ao lado dos dados).
+ *
+ * Ouvintes registrados com adicionarOuvinte recebem cada inclusão, alteração e exclusão
+ * feita por qualquer DAO do arquivo, na thread que gravou, depois de soltos os bloqueios e
+ * na ordem em que as alterações foram aplicadas. Alterações recusadas não são avisadas.
+ */
+class CacheEntidades<T> {
+    private static final Map<String, CacheEntidades<?>> CACHES = new HashMap<>();
+
+    private final Armazenamento<T> armazenamento;
+    private final CodecEntidade<T> codec;
+    private final SequenciaId sequencia;
+    private final Map<Integer, T> entidades = new LinkedHashMap<>();
+    private final Map<String, Indice<T>> indices = new LinkedHashMap<>();
+    private final ReentrantReadWriteLock bloqueio = new ReentrantReadWriteLock();
+    private final BloqueioArquivo bloqueioArquivo;
+    private boolean carregado = false;
+    // Entidades na ordem do mapa para stream(). Gravações só descartam a referência; o
+    // retrato é montado na primeira chamada a stream() depois delas, uma única vez mesmo
+    // com várias threads chegando juntas. SoftReference: um retrato que ninguém voltou a
+    // percorrer pode ser liberado pelo coletor e é montado de novo se for pedido
+    private volatile SoftReference<Object[]> retrato;
+    private final Object montagemRetrato = new Object();
+    private final List<Consumer<Alteracao<T>>> ouvintes = new CopyOnWriteArrayList<>();
+    // Alterações da operação em andamento, só com o bloqueio de escrita; viram avisos
+    // quando a operação termina sem erro
+    private final List<Alteracao<T>> alteracoesDaOperacao = new ArrayList<>();
+    private final Queue<Alteracao<T>> avisos = new ConcurrentLinkedQueue<>();
+    private boolean recarregando = false;
+    private boolean lidoAlgumaVez = false;
+
+    private CacheEntidades(String caminho, Armazenamento<T> armazenamento, CodecEntidade<T> codec) {
+        this.armazenamento = armazenamento;
+        this.codec = codec;
+        this.bloqueioArquivo = bloqueioDoArquivo(caminho);
+        this.sequencia = new SequenciaId(new File(caminhoBase(caminho) + ".seq"), this::maiorId);
+    }
+
+    @SuppressWarnings("unchecked")
+    static synchronized <T> CacheEntidades<T> doArquivo(String caminho, CodecEntidade<T> codec) {
+        return (CacheEntidades<T>) CACHES.computeIfAbsent(caminho,
+                c -> new CacheEntidades<>(c, criarArmazenamento(c, codec), codec));
+    }
+
+    // Cache com uma forma de armazenamento própria da entidade, fora dos modos gerais
+    @SuppressWarnings("unchecked")
+    static synchronized <T> CacheEntidades<T> comArmazenamento(String caminho, Supplier<Armazenamento<T>> criar,
+                                                              CodecEntidade<T> codec) {
+        return (CacheEntidades<T>) CACHES.computeIfAbsent(caminho,
+                c -> new CacheEntidades<>(c, criar.get(), codec));
+    }
+
+    static synchronized void descartarTodos() {
+        CACHES.clear();
+    }
+
+    private static <T> Armazenamento<T> criarArmazenamento(String caminho, CodecEntidade<T> codec) {
+        File arquivo = new File(caminho);
+        if (ConfiguracaoArmazenamento.getModo() == ConfiguracaoArmazenamento.Modo.JOURNAL) {
+            return new ArmazenamentoJournal<>(new File(caminhoBase(caminho) + ".journal"), arquivo, codec,
+                    bloqueioDoArquivo(caminho));
+        }
+        return new ArmazenamentoTexto<>(arquivo, new File(caminhoBase(caminho) + ".idx"), codec);
+    }
+
+    static BloqueioArquivo bloqueioDoArquivo(String caminho) {
+        return BloqueioArquivo.para(new File(caminhoBase(caminho) + ".lock"));
+    }
+
+    // Caminho sem a extensão: dados/alunos.txt -> dados/alunos
+    private static String caminhoBase(String caminho) {
+        int ponto = caminho.lastIndexOf('.');
+        return ponto > caminho.lastIndexOf('/') ? caminho.substring(0, ponto) : caminho;
+    }
+
+    void adicionarOuvinte(Consumer<Alteracao<T>> ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    void removerOuvinte(Consumer<Alteracao<T>> ouvinte) {
+        ouvintes.remove(ouvinte);
+    }
+
+    // Gerador de ids da entidade; usado fora do bloqueio do cache
+    SequenciaId sequencia() {
+        return sequencia;
+    }
+
+    // Retorna o índice registrado com este nome, criando e preenchendo na primeira vez
+    @SuppressWarnings("unchecked")
+    <I extends Indice<T>> I indice(String nome, Supplier<I> criar) {
+        bloqueio.readLock().lock();
+        try {
+            Indice<T> existente = indices.get(nome);
+            if (existente != null) {
+                return (I) existente;
+            }
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+
+        bloqueio.writeLock().lock();
+        try {
+            Indice<T> indice = indices.get(nome);
+            if (indice == null) {
+                indice = criar.get();
+                for (Map.Entry<Integer, T> entrada : entidades.entrySet()) {
+                    indice.atualizar(entrada.getKey(), entrada.getValue());
+                }
+                indices.put(nome, indice);
+            }
+            return (I) indice;
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+    }
+
+    <R> R ler(Supplier<R> consulta) {
+        boolean recarregou = false;
+        bloqueio.readLock().lock();
+        try {
+            if (precisaRecarregar()) {
+                // Não dá para subir de leitura para escrita: solta, recarrega e rebaixa
+                bloqueio.readLock().unlock();
+                bloqueio.writeLock().lock();
+                try {
+                    if (precisaRecarregar()) {
+                        // Exclusivo mesmo sendo uma leitura: a recarga pode gravar (migração
+                        // para o journal ou o binário, descarte de registro incompleto,
+                        // índice de ids refeito)
+                        bloqueioArquivo.adquirir(false);
+                        try {
+                            recarregar();
+                            confirmarAlteracoes();
+                            recarregou = true;
+                        } finally {
+                            alteracoesDaOperacao.clear();
+                            bloqueioArquivo.liberar();
+                        }
+                    }
+                } finally {
+                    bloqueio.readLock().lock();
+                    bloqueio.writeLock().unlock();
+                }
+            }
+            return consulta.get();
+        } finally {
+            bloqueio.readLock().unlock();
+            if (recarregou) {
+                avisarOuvintes();
+            }
+        }
+    }
+
+    T buscarPorId(int id) {
+        if (!carregado) {
+            List<T> doDisco = lerDoDisco(indice -> indice.buscar(id));
+            if (doDisco != null) {
+                return doDisco.isEmpty() ? null : doDisco.get(0);
+            }
+        }
+        return ler(() -> entidades.get(id));
+    }
+
+    // Página em ordem de id com os de id maior que depoisDoId. Como buscarPorId, antes de
+    // o arquivo ser carregado lê só as linhas da página pelo índice de ids no disco
+    Pagina<T> paginarPorId(IndiceOrdenado<T> indice, int depoisDoId, int limite) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("Limite da página deve ser positivo");
+        }
+        if (!carregado) {
+            List<T> doDisco = lerDoDisco(indicePorId -> indicePorId.faixa(depoisDoId, limite + 1));
+            if (doDisco != null) {
+                int quantidade = Math.min(doDisco.size(), limite);
+                Cursor proximo = null;
+                if (doDisco.size() > limite) {
+                    int ultimoId = codec.id(doDisco.get(quantidade - 1));
+                    proximo = new Cursor(indice, ultimoId, ultimoId);
+                }
+                return new Pagina<>(new ArrayList<>(doDisco.subList(0, quantidade)), proximo);
+            }
+        }
+        return paginar(indice, new Cursor(indice, depoisDoId, depoisDoId), limite);
+    }
+
+    // Registros que a última leitura do arquivo deixou de fora; não carrega o arquivo
+    List<String> registrosIgnorados() {
+        bloqueio.readLock().lock();
+        try {
+            return armazenamento.registrosIgnorados();
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+    }
+
+    // Indica se o armazenamento tem um índice de ids no disco que corresponde ao arquivo
+    boolean temIndicePorId() {
+        bloqueio.readLock().lock();
+        try {
+            bloqueioArquivo.adquirir(true);
+            try {
+                return armazenamento.indicePorId() != null;
+            } finally {
+                bloqueioArquivo.liberar();
+            }
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+    }
+
+    // Entidades que a consulta encontrar no índice de ids do armazenamento, lidas direto do
+    // arquivo sem carregar as demais. null quando não dá para responder assim: o cache já
+    // foi carregado, não há índice válido, a leitura falhou ou algum id lido não confere;
+    // quem chama então consulta o cache, que carrega o arquivo inteiro. Só com os bloqueios
+    // de leitura: várias threads leem pelo índice ao mesmo tempo, e uma recarga ou gravação
+    // espera as leituras em andamento
+    private List<T> lerDoDisco(Function<IndicePaginas, IndicePaginas.Entradas> consulta) {
+        bloqueio.readLock().lock();
+        try {
+            if (carregado) {
+                return null;
+            }
+            bloqueioArquivo.adquirir(true);
+            try {
+                IndicePaginas indice = armazenamento.indicePorId();
+                IndicePaginas.Entradas entradas = indice != null ? consulta.apply(indice) : null;
+                List<T> lidas = entradas != null ? armazenamento.lerEm(entradas.posicoes) : null;
+                if (lidas == null) {
+                    return null;
+                }
+                for (int i = 0; i < lidas.size(); i++) {
+                    if (codec.id(lidas.get(i)) != entradas.ids[i]) {
+                        return null;
+                    }
+                }
+                return lidas;
+            } finally {
+                bloqueioArquivo.liberar();
+            }
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+    }
+
+    // Entidades cujos ids estão no índice para a chave, na ordem do índice
+    <K> List<T> buscarPorIndice(IndiceHash<K, T> indice, K chave) {
+        return ler(() -> {
+            int[] ids = indice.buscar(chave);
+            List<T> resultado = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                resultado.add(entidades.get(id));
+            }
+            return resultado;
+        });
+    }
+
+    <K> T buscarPorIndice(IndiceUnico<K, T> indice, K chave) {
+        return ler(() -> {
+            Integer id = indice.buscar(chave);
+            return id != null ? entidades.get(id) : null;
+        });
+    }
+
+    // Entidades cujo texto contém os termos, na ordem de relevância do índice
+    List<T> buscarPorTexto(IndiceTrigramas<T> indice, String texto, int limite) {
+        return ler(() -> emOrdem(indice.buscar(texto, limite)));
+    }
+
+    // Entidades com todas as palavras da consulta, da maior para a menor pontuação
+    List<T> pesquisar(IndiceInvertido<T> indice, String consulta, int limite) {
+        return ler(() -> emOrdem(indice.buscar(consulta, limite)));
+    }
+
+    // Chamado com a leitura já bloqueada; os ids vêm de um índice, então todos existem
+    private List<T> emOrdem(int[] ids) {
+        List<T> resultado = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            resultado.add(entidades.get(id));
+        }
+        return resultado;
+    }
+
+    List<T> listarTodos() {
+        return ler(() -> new ArrayList<>(entidades.values()));
+    }
+
+    // Ids de todas as entidades na ordem do índice: 4 bytes por linha, sem materializar
+    // as entidades, para quem precisa só saber quantas são e em que posição está cada uma
+    int[] ids(IndiceOrdenado<T> indice) {
+        return ler(indice::ids);
+    }
+
+    // Entidades dos ids na mesma ordem, com null para as que não existem mais
+    List<T> buscarPorIds(int[] ids) {
+        return ler(() -> {
+            List<T> resultado = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                resultado.add(entidades.get(id));
+            }
+            return resultado;
+        });
+    }
+
+    // Até limite entidades depois do cursor (do início quando null), na ordem do índice
+    Pagina<T> paginar(IndiceOrdenado<T> indice, Cursor depois, int limite) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("Limite da página deve ser positivo");
+        }
+        return ler(() -> {
+            // Um a mais que o limite só para saber se existe próxima página
+            int[] ids = indice.depois(depois, limite + 1);
+            int quantidade = Math.min(ids.length, limite);
+            List<T> itens = new ArrayList<>(quantidade);
+            for (int i = 0; i < quantidade; i++) {
+                itens.add(entidades.get(ids[i]));
+            }
+            Cursor proximo = ids.length > limite ? indice.cursorDe(ids[quantidade - 1]) : null;
+            return new Pagina<>(itens, proximo);
+        });
+    }
+
+    // Percorre as entidades sem copiar a lista e sem segurar o bloqueio: o stream usa o
+    // retrato imutável do momento da chamada, compartilhado por todas as leituras até a
+    // próxima alteração. Operações como findFirst e anyMatch param no primeiro resultado
+    @SuppressWarnings("unchecked")
+    Stream<T> stream() {
+        Object[] atual = ler(() -> {
+            Object[] existente = retratoMontado();
+            if (existente == null) {
+                // Com o bloqueio de leitura o mapa não muda; só quem monta precisa do monitor
+                synchronized (montagemRetrato) {
+                    existente = retratoMontado();
+                    if (existente == null) {
+                        existente = entidades.values().toArray();
+                        retrato = new SoftReference<>(existente);
+                    }
+                }
+            }
+            return existente;
+        });
+        return Arrays.stream(atual).map(entidade -> (T) entidade);
+    }
+
+    private Object[] retratoMontado() {
+        SoftReference<Object[]> referencia = retrato;
+        return referencia != null ? referencia.get() : null;
+    }
+
+    // Consultado na primeira reserva de ids do processo; antes de o arquivo ser carregado
+    // basta a última entrada do índice de ids no disco
+    int maiorId() {
+        if (!carregado) {
+            List<T> doDisco = lerDoDisco(IndicePaginas::ultima);
+            if (doDisco != null) {
+                return doDisco.isEmpty() ? 0 : codec.id(doDisco.get(0));
+            }
+        }
+        return ler(() -> {
+            int maior = 0;
+            for (int id : entidades.keySet()) {
+                maior = Math.max(maior, id);
+            }
+            return maior;
+        });
+    }
+
+    void salvar(T entidade) {
+        escrever(() -> {
+            validar(entidade);
+            colocar(entidade);
+            try {
+                armazenamento.gravar(entidade, entidades.values());
+            } catch (RuntimeException e) {
+                // A entidade foi recusada pelo formato de armazenamento ou a gravação
+                // falhou; a próxima leitura volta ao que está gravado
+                carregado = false;
+                throw e;
+            }
+        });
+        armazenamento.sincronizar();
+        avisarOuvintes();
+    }
+
+    void excluir(int id) {
+        escrever(() -> {
+            if (retirar(id)) {
+                try {
+                    armazenamento.excluir(id, entidades.values());
+                } catch (RuntimeException e) {
+                    // Falha ao gravar: a próxima leitura volta ao que está no arquivo
+                    carregado = false;
+                    throw e;
+                }
+            }
+        });
+        armazenamento.sincronizar();
+        avisarOuvintes();
+    }
+
+    // Valida e aplica o lote inteiro na memória antes de gravar uma única vez. Se uma
+    // entidade for recusada, nada é gravado e a próxima leitura volta ao que está no arquivo
+    void salvarLote(Collection<T> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        escrever(() -> {
+            try {
+                for (T entidade : lote) {
+                    validar(entidade);
+                    colocar(entidade);
+                }
+                armazenamento.gravarLote(lote, entidades.values());
+            } catch (RuntimeException e) {
+                carregado = false;
+                throw e;
+            }
+        });
+        armazenamento.sincronizar();
+        avisarOuvintes();
+    }
+
+    void excluirLote(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        escrever(() -> {
+            List<Integer> removidos = new ArrayList<>(ids.size());
+            for (int id : ids) {
+                if (retirar(id)) {
+                    removidos.add(id);
+                }
+            }
+            if (!removidos.isEmpty()) {
+                try {
+                    armazenamento.excluirLote(removidos, entidades.values());
+                } catch (RuntimeException e) {
+                    carregado = false;
+                    throw e;
+                }
+            }
+        });
+        armazenamento.sincronizar();
+        avisarOuvintes();
+    }
+
+    // Executa uma alteração com exclusão total: threads pelo bloqueio de escrita,
+    // processos pelo bloqueio exclusivo do arquivo, partindo do estado gravado mais recente
+    private void escrever(Runnable alteracao) {
+        bloqueio.writeLock().lock();
+        try {
+            bloqueioArquivo.adquirir(false);
+            try {
+                if (precisaRecarregar()) {
+                    recarregar();
+                }
+                alteracao.run();
+                confirmarAlteracoes();
+            } finally {
+                alteracoesDaOperacao.clear();
+                bloqueioArquivo.liberar();
+            }
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+    }
+
+    private boolean precisaRecarregar() {
+        return !carregado || armazenamento.alteradoExternamente();
+    }
+
+    // Uma recarga vira um único aviso RECARGA, não um por entidade; a primeira leitura
+    // do arquivo não é avisada
+    private void recarregar() {
+        recarregando = true;
+        try {
+            armazenamento.recarregar(!carregado, this::limpar, this::colocar, this::retirar);
+        } catch (RuntimeException e) {
+            // Leitura pela metade: o mapa não representa o arquivo
+            carregado = false;
+            throw e;
+        } finally {
+            recarregando = false;
+        }
+        carregado = true;
+        if (lidoAlgumaVez) {
+            alteracoesDaOperacao.add(new Alteracao<>(Alteracao.Tipo.RECARGA, 0, null));
+        }
+        lidoAlgumaVez = true;
+    }
+
+    private void confirmarAlteracoes() {
+        avisos.addAll(alteracoesDaOperacao);
+        alteracoesDaOperacao.clear();
+    }
+
+    // Entrega os avisos pendentes, um entregador por vez para manter a ordem. Chamado sem
+    // os bloqueios; um ouvinte com erro não impede a entrega aos demais
+    private void avisarOuvintes() {
+        if (avisos.isEmpty()) {
+            return;
+        }
+        synchronized (avisos) {
+            Alteracao<T> alteracao;
+            while ((alteracao = avisos.poll()) != null) {
+                for (Consumer<Alteracao<T>> ouvinte : ouvintes) {
+                    try {
+                        ouvinte.accept(alteracao);
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    private void validar(T entidade) {
+        int id = codec.id(entidade);
+        try {
+            for (Indice<T> indice : indices.values()) {
+                indice.validar(id, entidade);
+            }
+        } catch (IllegalArgumentException e) {
+            // Se a instância recusada é a própria do cache, ela já foi alterada pelo
+            // chamador; a próxima leitura volta ao que está gravado
+            if (entidades.get(id) == entidade) {
+                carregado = false;
+            }
+            throw e;
+        }
+    }
+
+    private void limpar() {
+        entidades.clear();
+        retrato = null;
+        for (Indice<T> indice : indices.values()) {
+            indice.limpar();
+        }
+    }
+
+    private void colocar(T entidade) {
+        int id = codec.id(entidade);
+        T anterior = entidades.put(id, entidade);
+        retrato = null;
+        if (!recarregando) {
+            Alteracao.Tipo tipo = anterior == null ? Alteracao.Tipo.INCLUSAO : Alteracao.Tipo.ALTERACAO;
+            alteracoesDaOperacao.add(new Alteracao<>(tipo, id, entidade));
+        }
+        atualizarIndices(id, entidade);
+    }
+
+    private boolean retirar(int id) {
+        T removida = entidades.remove(id);
+        if (removida == null) {
+            return false;
+        }
+        retrato = null;
+        if (!recarregando) {
+            alteracoesDaOperacao.add(new Alteracao<>(Alteracao.Tipo.EXCLUSAO, id, removida));
+        }
+        atualizarIndices(id, null);
+        return true;
+    }
+
+    // Se um índice falhar no meio, o mapa e os índices já não concordam: a próxima
+    // leitura volta ao que está gravado
+    private void atualizarIndices(int id, T entidade) {
+        try {
+            for (Indice<T> indice : indices.values()) {
+                indice.atualizar(id, entidade);
+            }
+        } catch (RuntimeException e) {
+            carregado = false;
+            throw e;
+        }
+    }
+}
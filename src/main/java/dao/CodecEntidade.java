@@ -0,0 +1,41 @@
+package dao;
+
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * O que o Repositorio precisa saber de cada entidade: como ela vira uma linha do arquivo
+ * e volta, e como ler e atribuir o id. Cada DAO declara o seu, por exemplo
+ * new CodecEntidade<>(Aluno::fromString, Aluno::toString, Aluno::getId, Aluno::setId).
+ */
+final class CodecEntidade<T> {
+    private final Function<String, T> decodificador;
+    private final Function<T, String> codificador;
+    private final ToIntFunction<T> extratorId;
+    private final ObjIntConsumer<T> definidorId;
+
+    CodecEntidade(Function<String, T> decodificador, Function<T, String> codificador,
+                  ToIntFunction<T> extratorId, ObjIntConsumer<T> definidorId) {
+        this.decodificador = decodificador;
+        this.codificador = codificador;
+        this.extratorId = extratorId;
+        this.definidorId = definidorId;
+    }
+
+    T decodificar(String linha) {
+        return decodificador.apply(linha);
+    }
+
+    String codificar(T entidade) {
+        return codificador.apply(entidade);
+    }
+
+    int id(T entidade) {
+        return extratorId.applyAsInt(entidade);
+    }
+
+    void definirId(T entidade, int id) {
+        definidorId.accept(entidade, id);
+    }
+}
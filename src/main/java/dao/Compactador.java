@@ -0,0 +1,56 @@
+package dao;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executa a compactação dos journals em uma thread própria, fora da thread de quem
+ * chamou salvar/excluir, e acumula as estatísticas das compactações realizadas.
+ */
+public final class Compactador {
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "compactador-journal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final AtomicLong compactacoes = new AtomicLong();
+    private static final AtomicLong bytesRecuperados = new AtomicLong();
+    private static final AtomicLong tempoTotalNanos = new AtomicLong();
+
+    private Compactador() {
+    }
+
+    static void agendar(Runnable compactacao) {
+        EXECUTOR.execute(compactacao);
+    }
+
+    static void registrar(long bytes, long nanos) {
+        compactacoes.incrementAndGet();
+        bytesRecuperados.addAndGet(bytes);
+        tempoTotalNanos.addAndGet(nanos);
+    }
+
+    public static long getCompactacoesRealizadas() {
+        return compactacoes.get();
+    }
+
+    public static long getBytesRecuperados() {
+        return bytesRecuperados.get();
+    }
+
+    public static long getTempoTotalCompactacaoMs() {
+        return TimeUnit.NANOSECONDS.toMillis(tempoTotalNanos.get());
+    }
+
+    // Espera as compactações já agendadas terminarem
+    public static void aguardarConclusao() {
+        try {
+            EXECUTOR.submit(() -> { }).get();
+        } catch (Exception e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
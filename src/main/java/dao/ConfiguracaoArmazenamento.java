@@ -0,0 +1,133 @@
+package dao;
+
+/**
+ * Opções de armazenamento dos DAOs. Os valores padrão podem ser trocados pela
+ * linha de comando, por exemplo: java -Dmatricula.armazenamento=journal -cp out App
+ */
+public final class ConfiguracaoArmazenamento {
+    public static final String PROPRIEDADE_MODO = "matricula.armazenamento";
+    public static final String PROPRIEDADE_MATRICULAS_BINARIO = "matricula.matriculas.binario";
+    public static final String PROPRIEDADE_LIMITE_LIXO = "matricula.compactacao.limite";
+    public static final String PROPRIEDADE_MINIMO_REGISTROS = "matricula.compactacao.minimo";
+    public static final String PROPRIEDADE_SINCRONIZACAO = "matricula.sincronizacao";
+    public static final String PROPRIEDADE_AQUECIMENTO_PARCIAL = "matricula.aquecimento.parcial";
+
+    public enum Modo {
+        // Arquivo texto reescrito inteiro a cada alteração (padrão)
+        TEXTO,
+        // Arquivo .journal em que cada alteração é acrescentada ao final
+        JOURNAL
+    }
+
+    public enum Sincronizacao {
+        // Nenhum fsync: a troca de arquivos continua atômica, mas uma queda de energia
+        // pode perder gravações que o sistema ainda não levou ao disco
+        NENHUMA,
+        // fsync em cada gravação, antes de salvar/excluir retornar
+        IMEDIATA,
+        // Como IMEDIATA, mas no journal e no binário de matrículas o fsync é feito fora
+        // dos bloqueios e compartilhado pelas gravações que chegaram juntas (padrão)
+        GRUPO
+    }
+
+    private static volatile Modo modo = lerModo();
+    private static volatile boolean matriculasBinario = Boolean.getBoolean(PROPRIEDADE_MATRICULAS_BINARIO);
+    private static volatile double limiteLixoCompactacao = lerDouble(PROPRIEDADE_LIMITE_LIXO, 0.5);
+    private static volatile int minimoRegistrosCompactacao = lerInt(PROPRIEDADE_MINIMO_REGISTROS, 1000);
+    private static volatile Sincronizacao sincronizacao = lerSincronizacao();
+    private static volatile boolean aquecimentoParcial = Boolean.getBoolean(PROPRIEDADE_AQUECIMENTO_PARCIAL);
+
+    private ConfiguracaoArmazenamento() {
+    }
+
+    public static Modo getModo() {
+        return modo;
+    }
+
+    // Troca o modo de armazenamento; os caches abertos são descartados e os DAOs
+    // criados a partir daqui passam a usar o novo formato
+    public static void setModo(Modo novoModo) {
+        modo = novoModo;
+        CacheEntidades.descartarTodos();
+    }
+
+    // Matrículas em arquivo binário de registros fixos (dados/matriculas.bin),
+    // independente do modo usado pelas demais entidades
+    public static boolean isMatriculasBinario() {
+        return matriculasBinario;
+    }
+
+    public static void setMatriculasBinario(boolean binario) {
+        matriculasBinario = binario;
+        CacheEntidades.descartarTodos();
+    }
+
+    // Fração de registros substituídos ou excluídos no journal (0 a 1) a partir da
+    // qual a compactação é disparada
+    public static double getLimiteLixoCompactacao() {
+        return limiteLixoCompactacao;
+    }
+
+    public static void setLimiteLixoCompactacao(double limite) {
+        limiteLixoCompactacao = limite;
+    }
+
+    // Journals com menos registros que isto nunca são compactados
+    public static int getMinimoRegistrosCompactacao() {
+        return minimoRegistrosCompactacao;
+    }
+
+    public static void setMinimoRegistrosCompactacao(int minimo) {
+        minimoRegistrosCompactacao = minimo;
+    }
+
+    public static Sincronizacao getSincronizacao() {
+        return sincronizacao;
+    }
+
+    public static void setSincronizacao(Sincronizacao novaSincronizacao) {
+        sincronizacao = novaSincronizacao;
+    }
+
+    // Com aquecimento parcial, ContextoDados.aquecer() deixa sem carregar as entidades
+    // cujo índice de ids no disco está em dia (abertura mais rápida, primeira tela mais
+    // lenta). Desligado por padrão: tudo é carregado antes de a primeira tela abrir
+    public static boolean isAquecimentoParcial() {
+        return aquecimentoParcial;
+    }
+
+    public static void setAquecimentoParcial(boolean parcial) {
+        aquecimentoParcial = parcial;
+    }
+
+    private static Modo lerModo() {
+        String valor = System.getProperty(PROPRIEDADE_MODO, "texto");
+        return "journal".equalsIgnoreCase(valor.trim()) ? Modo.JOURNAL : Modo.TEXTO;
+    }
+
+    private static Sincronizacao lerSincronizacao() {
+        String valor = System.getProperty(PROPRIEDADE_SINCRONIZACAO, "grupo").trim();
+        for (Sincronizacao opcao : Sincronizacao.values()) {
+            if (opcao.name().equalsIgnoreCase(valor)) {
+                return opcao;
+            }
+        }
+        return Sincronizacao.GRUPO;
+    }
+
+    private static double lerDouble(String propriedade, double padrao) {
+        try {
+            return Double.parseDouble(System.getProperty(propriedade, String.valueOf(padrao)).trim());
+        } catch (NumberFormatException e) {
+            return padrao;
+        }
+    }
+
+    private static int lerInt(String propriedade, int padrao) {
+        try {
+            return Integer.parseInt(System.getProperty(propriedade, String.valueOf(padrao)).trim());
+        } catch (NumberFormatException e) {
+            return padrao;
+        }
+    }
+}
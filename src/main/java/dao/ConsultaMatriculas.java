@@ -0,0 +1,101 @@
+package dao;
+
+import classes.Aluno;
+import classes.Disciplina;
+import classes.LinhaMatricula;
+import classes.Matricula;
+import classes.Professor;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Junta as matrículas com aluno, disciplina e professor para exibição.
+ * Cada entidade é listada uma única vez por consulta e indexada por id em memória,
+ * em vez de uma busca por linha de matrícula.
+ */
+public class ConsultaMatriculas {
+    private final MatriculaDAO matriculaDAO;
+    private final AlunoDAO alunoDAO;
+    private final DisciplinaDAO disciplinaDAO;
+    private final ProfessorDAO professorDAO;
+
+    public ConsultaMatriculas(MatriculaDAO matriculaDAO, AlunoDAO alunoDAO,
+                              DisciplinaDAO disciplinaDAO, ProfessorDAO professorDAO) {
+        this.matriculaDAO = matriculaDAO;
+        this.alunoDAO = alunoDAO;
+        this.disciplinaDAO = disciplinaDAO;
+        this.professorDAO = professorDAO;
+    }
+
+    public List<LinhaMatricula> listarLinhas() {
+        List<Matricula> matriculas = matriculaDAO.listarTodos();
+        Map<Integer, Aluno> alunos = porId(alunoDAO.stream(), Aluno::getId);
+        Map<Integer, Disciplina> disciplinas = porId(disciplinaDAO.stream(), Disciplina::getId);
+        Map<Integer, Professor> professores = porId(professorDAO.stream(), Professor::getId);
+
+        List<LinhaMatricula> linhas = new ArrayList<>(matriculas.size());
+        for (Matricula matricula : matriculas) {
+            linhas.add(linha(matricula, alunos, disciplinas, professores));
+        }
+        return linhas;
+    }
+
+    // Linhas só das matrículas pedidas, na mesma ordem (null para as excluídas). Busca
+    // apenas os alunos, disciplinas e professores que aparecem nelas, então o custo
+    // depende do tamanho da janela e não do total de matrículas
+    public List<LinhaMatricula> buscarLinhas(int[] ids) {
+        List<Matricula> matriculas = matriculaDAO.buscarPorIds(ids);
+        Set<Integer> idsAlunos = new HashSet<>();
+        Set<Integer> idsDisciplinas = new HashSet<>();
+        for (Matricula matricula : matriculas) {
+            if (matricula != null) {
+                idsAlunos.add(matricula.getAlunoId());
+                idsDisciplinas.add(matricula.getDisciplinaId());
+            }
+        }
+        Map<Integer, Aluno> alunos = porId(alunoDAO.buscarPorIds(paraArray(idsAlunos)).stream(), Aluno::getId);
+        Map<Integer, Disciplina> disciplinas = porId(disciplinaDAO.buscarPorIds(paraArray(idsDisciplinas)).stream(), Disciplina::getId);
+        Set<Integer> idsProfessores = new HashSet<>();
+        for (Disciplina disciplina : disciplinas.values()) {
+            idsProfessores.add(disciplina.getProfessorId());
+        }
+        Map<Integer, Professor> professores = porId(professorDAO.buscarPorIds(paraArray(idsProfessores)).stream(), Professor::getId);
+
+        List<LinhaMatricula> linhas = new ArrayList<>(matriculas.size());
+        for (Matricula matricula : matriculas) {
+            linhas.add(matricula != null ? linha(matricula, alunos, disciplinas, professores) : null);
+        }
+        return linhas;
+    }
+
+    private static LinhaMatricula linha(Matricula matricula, Map<Integer, Aluno> alunos,
+                                        Map<Integer, Disciplina> disciplinas, Map<Integer, Professor> professores) {
+        Aluno aluno = alunos.get(matricula.getAlunoId());
+        Disciplina disciplina = disciplinas.get(matricula.getDisciplinaId());
+        Professor professor = disciplina != null ? professores.get(disciplina.getProfessorId()) : null;
+
+        return new LinhaMatricula(
+            matricula.getId(),
+            matricula.getAlunoId(),
+            matricula.getDisciplinaId(),
+            disciplina != null ? disciplina.getProfessorId() : 0,
+            aluno != null ? aluno.getNome() : "Aluno não encontrado",
+            disciplina != null ? disciplina.getNomeDisciplina() : "Disciplina não encontrada",
+            professor != null ? professor.getNome() : "Professor não encontrado",
+            matricula.getDataMatricula(),
+            matricula.getStatus()
+        );
+    }
+
+    private static int[] paraArray(Set<Integer> ids) {
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static <T> Map<Integer, T> porId(Stream<T> entidades, ToIntFunction<T> extratorId) {
+        Map<Integer, T> mapa = new HashMap<>();
+        entidades.filter(Objects::nonNull).forEach(entidade -> mapa.put(extratorId.applyAsInt(entidade), entidade));
+        return mapa;
+    }
+}
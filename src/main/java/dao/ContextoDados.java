@@ -0,0 +1,70 @@
+package dao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DAOs da aplicação, criados uma única vez em App.main e repassados às telas.
+ *
+ * Os caches e índices ficam nos DAOs (compartilhados por arquivo); guardar uma instância
+ * de cada aqui evita que cada tela aberta crie os seus e, com aquecer(), os arquivos já
+ * estão lidos e os índices montados antes de a primeira tela ser aberta. Com
+ * ConfiguracaoArmazenamento.setAquecimentoParcial(true), entidades com o índice de ids no
+ * disco em dia (dados/<entidade>.idx) ficam sem carregar: as buscas por id leem só as
+ * linhas pedidas, e a tabela carrega o arquivo ao ser aberta.
+ */
+public class ContextoDados {
+    private final AlunoDAO alunoDAO;
+    private final ProfessorDAO professorDAO;
+    private final DisciplinaDAO disciplinaDAO;
+    private final MatriculaDAO matriculaDAO;
+    private final ConsultaMatriculas consultaMatriculas;
+
+    public ContextoDados() {
+        alunoDAO = new AlunoDAO();
+        professorDAO = new ProfessorDAO();
+        disciplinaDAO = new DisciplinaDAO();
+        matriculaDAO = new MatriculaDAO();
+        consultaMatriculas = new ConsultaMatriculas(matriculaDAO, alunoDAO, disciplinaDAO, professorDAO);
+    }
+
+    // Lê os arquivos e monta os índices que as telas usam (a ordem por id das tabelas).
+    // Deve rodar fora da EDT
+    public void aquecer() {
+        alunoDAO.aquecer();
+        professorDAO.aquecer();
+        disciplinaDAO.aquecer();
+        matriculaDAO.aquecer();
+    }
+
+    // Registros dos arquivos lidos até aqui que não puderam ser decodificados e ficaram de
+    // fora dos dados (journal corrompido), para a aplicação avisar o usuário
+    public List<String> getRegistrosIgnorados() {
+        List<String> ignorados = new ArrayList<>();
+        ignorados.addAll(alunoDAO.registrosIgnorados());
+        ignorados.addAll(professorDAO.registrosIgnorados());
+        ignorados.addAll(disciplinaDAO.registrosIgnorados());
+        ignorados.addAll(matriculaDAO.registrosIgnorados());
+        return ignorados;
+    }
+
+    public AlunoDAO getAlunoDAO() {
+        return alunoDAO;
+    }
+
+    public ProfessorDAO getProfessorDAO() {
+        return professorDAO;
+    }
+
+    public DisciplinaDAO getDisciplinaDAO() {
+        return disciplinaDAO;
+    }
+
+    public MatriculaDAO getMatriculaDAO() {
+        return matriculaDAO;
+    }
+
+    public ConsultaMatriculas getConsultaMatriculas() {
+        return consultaMatriculas;
+    }
+}
@@ -0,0 +1,32 @@
+package dao;
+
+/**
+ * Posição depois da qual a próxima página começa, devolvida em Pagina.getProximo().
+ *
+ * Guarda a chave de ordenação e o id da última linha entregue, não um deslocamento:
+ * inclusões, alterações e exclusões feitas entre uma página e outra não fazem linhas
+ * se repetirem nem serem puladas.
+ */
+public final class Cursor {
+    private final Object indice;
+    private final Object chave;
+    private final int id;
+
+    Cursor(Object indice, Object chave, int id) {
+        this.indice = indice;
+        this.chave = chave;
+        this.id = id;
+    }
+
+    Object getIndice() {
+        return indice;
+    }
+
+    Object getChave() {
+        return chave;
+    }
+
+    public int getId() {
+        return id;
+    }
+}
@@ -1,105 +1,141 @@
 package dao;
 
 import classes.Disciplina;
-import java.io.*;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class DisciplinaDAO {
     private static final String ARQUIVO = "dados/disciplinas.txt";
-    private static int proximoId = 1;
+    private static final CodecEntidade<Disciplina> CODEC =
+            new CodecEntidade<>(Disciplina::fromString, Disciplina::toString, Disciplina::getId, Disciplina::setId);
+    private final Repositorio<Disciplina> repositorio;
+    private final IndiceUnico<String, Disciplina> indiceCodigo;
+    private final IndiceTrigramas<Disciplina> indiceTexto;
+    private final IndiceInvertido<Disciplina> indicePesquisa;
 
-    public DisciplinaDAO() {
-        criarDiretorioSeNaoExistir();
-        carregarProximoId();
-    }
+    // Ordenações aceitas por listar; empates são desfeitos pelo id
+    public enum Ordem {
+        ID(Disciplina::getId),
+        NOME(disciplina -> IndiceOrdenado.texto(disciplina.getNomeDisciplina())),
+        CODIGO(Disciplina::getCodigo);
+
+        private final Function<Disciplina, ? extends Comparable<?>> chave;
 
-    private void criarDiretorioSeNaoExistir() {
-        File dir = new File("dados");
-        if (!dir.exists()) {
-            dir.mkdirs();
+        Ordem(Function<Disciplina, ? extends Comparable<?>> chave) {
+            this.chave = chave;
         }
     }
 
-    private void carregarProximoId() {
-        List<Disciplina> disciplinas = listarTodos();
-        if (!disciplinas.isEmpty()) {
-            proximoId = disciplinas.stream().mapToInt(Disciplina::getId).max().orElse(0) + 1;
-        }
+    public DisciplinaDAO() {
+        repositorio = Repositorio.doArquivo(ARQUIVO, CODEC);
+        indiceCodigo = repositorio.indice("codigo", () -> new IndiceUnico<>(Disciplina::getCodigo, "Código da disciplina já existe!"));
+        indiceTexto = repositorio.indice("texto", () -> new IndiceTrigramas<>(disciplina -> disciplina.getNomeDisciplina() + " " + disciplina.getCodigo()));
+        indicePesquisa = repositorio.indice("pesquisa", () -> new IndiceInvertido<Disciplina>()
+                .campo(Disciplina::getNomeDisciplina, 3)
+                .campo(Disciplina::getCodigo, 2));
     }
 
     public void salvar(Disciplina disciplina) {
-        if (disciplina.getId() == 0) {
-            disciplina.setId(proximoId++);
-        }
-        
-        List<Disciplina> disciplinas = listarTodos();
-        boolean encontrado = false;
-        
-        for (int i = 0; i < disciplinas.size(); i++) {
-            if (disciplinas.get(i).getId() == disciplina.getId()) {
-                disciplinas.set(i, disciplina);
-                encontrado = true;
-                break;
-            }
-        }
-        
-        if (!encontrado) {
-            disciplinas.add(disciplina);
-        }
-        
-        salvarTodos(disciplinas);
+        repositorio.salvar(disciplina);
+    }
+
+    // Salva todas com uma única gravação no arquivo; se alguma for recusada (código
+    // duplicado), nenhuma é gravada
+    public void salvarLote(Collection<Disciplina> disciplinas) {
+        repositorio.salvarLote(disciplinas);
     }
 
     public void excluir(int id) {
-        List<Disciplina> disciplinas = listarTodos();
-        disciplinas.removeIf(disciplina -> disciplina.getId() == id);
-        salvarTodos(disciplinas);
+        repositorio.excluir(id);
+    }
+
+    public void excluirLote(Collection<Integer> ids) {
+        repositorio.excluirLote(ids);
     }
 
     public Disciplina buscarPorId(int id) {
-        return listarTodos().stream()
-                .filter(disciplina -> disciplina.getId() == id)
-                .findFirst()
-                .orElse(null);
+        return repositorio.buscarPorId(id);
     }
 
     public List<Disciplina> listarTodos() {
-        List<Disciplina> disciplinas = new ArrayList<>();
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(ARQUIVO))) {
-            String linha;
-            while ((linha = reader.readLine()) != null) {
-                if (!linha.trim().isEmpty()) {
-                    disciplinas.add(Disciplina.fromString(linha));
-                }
-            }
-        } catch (FileNotFoundException e) {
-            // Arquivo ainda não existe, retorna lista vazia
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        
-        return disciplinas;
-    }
-
-    private void salvarTodos(List<Disciplina> disciplinas) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(ARQUIVO))) {
-            for (Disciplina disciplina : disciplinas) {
-                writer.write(disciplina.toString());
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        return repositorio.listarTodos();
+    }
+
+    // Página em ordem de id com os de id maior que depoisDoId (0 para a primeira página)
+    public Pagina<Disciplina> listar(int depoisDoId, int limite) {
+        return repositorio.listar(depoisDoId, limite);
+    }
+
+    // Página na ordem escolhida, depois do cursor da página anterior (null para a primeira)
+    public Pagina<Disciplina> listar(Ordem ordem, Cursor depois, int limite) {
+        return repositorio.listar(indiceOrdenado(ordem), depois, limite);
+    }
+
+    // Só os ids, na ordem escolhida; as entidades são buscadas depois com buscarPorIds
+    public int[] listarIds(Ordem ordem) {
+        return repositorio.listarIds(indiceOrdenado(ordem));
+    }
+
+    // Chamado por ContextoDados.aquecer()
+    void aquecer() {
+        repositorio.aquecer(indiceOrdenado(Ordem.ID));
+    }
+
+    // Chamado por ContextoDados.getRegistrosIgnorados()
+    List<String> registrosIgnorados() {
+        return repositorio.registrosIgnorados();
+    }
+
+    // Na ordem dos ids, com null no lugar dos que foram excluídos
+    public List<Disciplina> buscarPorIds(int[] ids) {
+        return repositorio.buscarPorIds(ids);
+    }
+
+    // Índice de cada ordenação criado no primeiro uso
+    private IndiceOrdenado<Disciplina> indiceOrdenado(Ordem ordem) {
+        return repositorio.indiceOrdenado(ordem.name(), ordem.chave);
+    }
+
+    // Até limite disciplinas cujo nome ou código contém as palavras digitadas, sem diferenciar acentos
+    // e maiúsculas; palavras de 1 ou 2 letras valem como início de palavra. Os que começam
+    // pelo texto digitado vêm primeiro
+    public List<Disciplina> buscarPorTexto(String texto, int limite) {
+        return repositorio.buscarPorTexto(indiceTexto, texto, limite);
+    }
+
+    // Pesquisa por palavras no nome e no código, sem diferenciar acentos e maiúsculas; todas
+    // as palavras precisam aparecer (inteiras ou como início de palavra), as mais relevantes primeiro
+    public List<Disciplina> pesquisar(String consulta, int limite) {
+        return repositorio.pesquisar(indicePesquisa, consulta, limite);
+    }
+
+    // Avisado de cada inclusão, alteração e exclusão feita por qualquer DisciplinaDAO, na thread
+    // que gravou; quem guarda o ouvinte por mais tempo que o DAO deve removê-lo ao terminar
+    public void adicionarOuvinte(Consumer<Alteracao<Disciplina>> ouvinte) {
+        repositorio.adicionarOuvinte(ouvinte);
+    }
+
+    public void removerOuvinte(Consumer<Alteracao<Disciplina>> ouvinte) {
+        repositorio.removerOuvinte(ouvinte);
+    }
+
+    // Percorre todos sem montar uma lista; filtros com findFirst/anyMatch param no primeiro encontrado
+    public Stream<Disciplina> stream() {
+        return repositorio.stream();
     }
 
     public boolean existeCodigo(String codigo) {
-        return listarTodos().stream()
-                .anyMatch(disciplina -> disciplina.getCodigo().equals(codigo));
+        return repositorio.ler(() -> indiceCodigo.contem(codigo));
+    }
+
+    public Disciplina buscarPorCodigo(String codigo) {
+        return repositorio.buscarPorIndice(indiceCodigo, codigo);
     }
 
     public List<Disciplina> buscarPorProfessor(int professorId) {
-        return listarTodos().stream()
+        return stream()
                 .filter(disciplina -> disciplina.getProfessorId() == professorId)
                 .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
     }
@@ -0,0 +1,19 @@
+package dao;
+
+/**
+ * Índice em memória mantido pelo CacheEntidades a cada carga, salvar e excluir.
+ */
+interface Indice<T> {
+
+    // Chamado antes de salvar; lança IllegalArgumentException se a entidade violar
+    // uma restrição do índice
+    default void validar(int id, T entidade) {
+    }
+
+    // Registra o novo estado da entidade com este id; entidade null indica exclusão.
+    // O índice guarda a chave anterior de cada id, então funciona mesmo quando a
+    // mesma instância foi alterada antes de ser salva de novo.
+    void atualizar(int id, T entidade);
+
+    void limpar();
+}
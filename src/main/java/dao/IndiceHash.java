@@ -0,0 +1,53 @@
+package dao;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Índice de hash de uma chave calculada para os ids das entidades que a possuem
+ * (um para muitos). Os ids de cada chave ficam em uma ListaInt, sem boxing.
+ * Entidades para as quais a função de chave retorna null não entram no índice.
+ */
+class IndiceHash<K, T> implements Indice<T> {
+    private final Function<T, K> extratorChave;
+    private final Map<K, ListaInt> idsPorChave = new HashMap<>();
+    private final Map<Integer, K> chavePorId = new HashMap<>();
+
+    IndiceHash(Function<T, K> extratorChave) {
+        this.extratorChave = extratorChave;
+    }
+
+    @Override
+    public void atualizar(int id, T entidade) {
+        K anterior = chavePorId.remove(id);
+        if (anterior != null) {
+            ListaInt ids = idsPorChave.get(anterior);
+            ids.remover(id);
+            if (ids.vazia()) {
+                idsPorChave.remove(anterior);
+            }
+        }
+
+        K chave = entidade != null ? extratorChave.apply(entidade) : null;
+        if (chave != null) {
+            chavePorId.put(id, chave);
+            idsPorChave.computeIfAbsent(chave, c -> new ListaInt()).adicionar(id);
+        }
+    }
+
+    @Override
+    public void limpar() {
+        idsPorChave.clear();
+        chavePorId.clear();
+    }
+
+    boolean contem(K chave) {
+        return idsPorChave.containsKey(chave);
+    }
+
+    int[] buscar(K chave) {
+        ListaInt ids = idsPorChave.get(chave);
+        return ids != null ? ids.paraArray() : new int[0];
+    }
+}
@@ -0,0 +1,127 @@
+package dao;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Índice invertido para a pesquisa por palavras em vários campos da entidade: cada palavra
+ * normalizada (sem acentos, minúsculas) aponta para os ids que a contêm, com o peso dos
+ * campos onde aparece. "joao silva" encontra "João da Silva" pelo nome e também quem tem
+ * joao.silva@... no email, mas o nome vale mais.
+ *
+ * Todos os termos da consulta precisam aparecer; cada termo também vale como início de
+ * palavra ("depart" encontra "departamento"), com metade da pontuação da palavra exata.
+ * A pontuação de um termo é o peso do campo vezes o quanto a palavra é rara entre as
+ * entidades (idf), então "computacao" pesa mais que "com" em um email.
+ */
+class IndiceInvertido<T> implements Indice<T> {
+    private final List<Function<T, String>> campos = new ArrayList<>();
+    private final List<Integer> pesos = new ArrayList<>();
+    // Palavra -> (id -> soma dos pesos dos campos onde a palavra aparece)
+    private final NavigableMap<String, Map<Integer, Integer>> idsPorPalavra = new TreeMap<>();
+    private final Map<Integer, Set<String>> palavrasPorId = new HashMap<>();
+
+    // Acrescenta um campo pesquisado; peso maior sobe o resultado quando o termo está nele
+    IndiceInvertido<T> campo(Function<T, String> extrator, int peso) {
+        campos.add(extrator);
+        pesos.add(peso);
+        return this;
+    }
+
+    @Override
+    public void atualizar(int id, T entidade) {
+        Set<String> anteriores = palavrasPorId.remove(id);
+        if (anteriores != null) {
+            for (String palavra : anteriores) {
+                Map<Integer, Integer> ids = idsPorPalavra.get(palavra);
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    idsPorPalavra.remove(palavra);
+                }
+            }
+        }
+        if (entidade == null) {
+            return;
+        }
+
+        Map<String, Integer> pesoPorPalavra = new HashMap<>();
+        for (int i = 0; i < campos.size(); i++) {
+            for (String palavra : palavras(campos.get(i).apply(entidade))) {
+                pesoPorPalavra.merge(palavra, pesos.get(i), Integer::sum);
+            }
+        }
+        for (Map.Entry<String, Integer> entrada : pesoPorPalavra.entrySet()) {
+            idsPorPalavra.computeIfAbsent(entrada.getKey(), p -> new HashMap<>()).put(id, entrada.getValue());
+        }
+        if (!pesoPorPalavra.isEmpty()) {
+            palavrasPorId.put(id, new HashSet<>(pesoPorPalavra.keySet()));
+        }
+    }
+
+    @Override
+    public void limpar() {
+        idsPorPalavra.clear();
+        palavrasPorId.clear();
+    }
+
+    // Ids que contêm todos os termos, da maior para a menor pontuação (empate pelo id),
+    // até o limite
+    int[] buscar(String consulta, int limite) {
+        String[] termos = palavras(consulta);
+        if (termos.length == 0) {
+            return new int[0];
+        }
+
+        Map<Integer, Double> pontuacao = null;
+        for (String termo : new LinkedHashSet<>(Arrays.asList(termos))) {
+            Map<Integer, Double> doTermo = pontuarTermo(termo);
+            if (pontuacao == null) {
+                pontuacao = doTermo;
+            } else {
+                Map<Integer, Double> restantes = new HashMap<>();
+                for (Map.Entry<Integer, Double> entrada : pontuacao.entrySet()) {
+                    Double outra = doTermo.get(entrada.getKey());
+                    if (outra != null) {
+                        restantes.put(entrada.getKey(), entrada.getValue() + outra);
+                    }
+                }
+                pontuacao = restantes;
+            }
+            if (pontuacao.isEmpty()) {
+                return new int[0];
+            }
+        }
+
+        List<Map.Entry<Integer, Double>> ordenados = new ArrayList<>(pontuacao.entrySet());
+        ordenados.sort(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        int quantidade = Math.min(limite, ordenados.size());
+        int[] resultado = new int[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            resultado[i] = ordenados.get(i).getKey();
+        }
+        return resultado;
+    }
+
+    // Pontuação de cada id para um termo: a melhor entre a palavra exata e as palavras que
+    // começam pelo termo
+    private Map<Integer, Double> pontuarTermo(String termo) {
+        Map<Integer, Double> pontuacao = new HashMap<>();
+        int total = palavrasPorId.size();
+        for (Map.Entry<String, Map<Integer, Integer>> entrada
+                : idsPorPalavra.subMap(termo, true, termo + Character.MAX_VALUE, false).entrySet()) {
+            Map<Integer, Integer> ids = entrada.getValue();
+            double idf = Math.log(1.0 + (double) total / ids.size());
+            double fator = entrada.getKey().equals(termo) ? 1.0 : 0.5;
+            for (Map.Entry<Integer, Integer> id : ids.entrySet()) {
+                pontuacao.merge(id.getKey(), id.getValue() * idf * fator, Math::max);
+            }
+        }
+        return pontuacao;
+    }
+
+    private static String[] palavras(String texto) {
+        String normalizado = TextoBusca.normalizar(texto);
+        return normalizado.isEmpty() ? new String[0] : normalizado.split(" ");
+    }
+}
@@ -0,0 +1,91 @@
+package dao;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Índice ordenado por uma chave (nome, data...) com desempate pelo id, usado na
+ * paginação por cursor: a próxima página começa logo depois da posição (chave, id) da
+ * última linha da página anterior, em O(log n) mais o tamanho da página.
+ */
+class IndiceOrdenado<T> implements Indice<T> {
+    private final Function<T, ? extends Comparable<?>> extratorChave;
+    private final NavigableSet<Posicao> posicoes;
+    private final Map<Integer, Posicao> posicaoPorId = new HashMap<>();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    IndiceOrdenado(Function<T, ? extends Comparable<?>> extratorChave) {
+        this.extratorChave = extratorChave;
+        Comparator<Comparable> chaves = Comparator.nullsFirst(Comparator.naturalOrder());
+        Comparator<Posicao> ordem = (a, b) -> chaves.compare(a.chave, b.chave);
+        this.posicoes = new TreeSet<>(ordem.thenComparingInt(p -> p.id));
+    }
+
+    @Override
+    public void atualizar(int id, T entidade) {
+        Posicao anterior = posicaoPorId.remove(id);
+        if (anterior != null) {
+            posicoes.remove(anterior);
+        }
+        if (entidade != null) {
+            Posicao posicao = new Posicao(extratorChave.apply(entidade), id);
+            posicaoPorId.put(id, posicao);
+            posicoes.add(posicao);
+        }
+    }
+
+    @Override
+    public void limpar() {
+        posicoes.clear();
+        posicaoPorId.clear();
+    }
+
+    // Chave para ordenar textos sem diferenciar maiúsculas
+    static String texto(String valor) {
+        return valor != null ? valor.toLowerCase(Locale.ROOT) : null;
+    }
+
+    // Ids das próximas linhas depois do cursor (do início quando null), até o limite
+    int[] depois(Cursor cursor, int limite) {
+        NavigableSet<Posicao> restantes = posicoes;
+        if (cursor != null) {
+            if (cursor.getIndice() != this) {
+                throw new IllegalArgumentException("Cursor criado para outra ordenação");
+            }
+            restantes = posicoes.tailSet(new Posicao((Comparable<?>) cursor.getChave(), cursor.getId()), false);
+        }
+
+        ListaInt ids = new ListaInt();
+        Iterator<Posicao> iterador = restantes.iterator();
+        while (ids.tamanho() < limite && iterador.hasNext()) {
+            ids.adicionar(iterador.next().id);
+        }
+        return ids.paraArray();
+    }
+
+    // Todos os ids na ordem do índice
+    int[] ids() {
+        int[] ids = new int[posicoes.size()];
+        int i = 0;
+        for (Posicao posicao : posicoes) {
+            ids[i++] = posicao.id;
+        }
+        return ids;
+    }
+
+    // Cursor que aponta para a posição atual do id neste índice
+    Cursor cursorDe(int id) {
+        Posicao posicao = posicaoPorId.get(id);
+        return posicao != null ? new Cursor(this, posicao.chave, id) : null;
+    }
+
+    private static final class Posicao {
+        final Comparable<?> chave;
+        final int id;
+
+        Posicao(Comparable<?> chave, int id) {
+            this.chave = chave;
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package dao;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Índice de ids gravado ao lado do arquivo de dados (dados/alunos.idx), com a posição em
+ * bytes da linha de cada entidade, para buscar um id ou uma faixa de ids lendo só uma ou
+ * duas páginas do índice e as linhas encontradas, sem carregar o arquivo inteiro.
+ *
+ * É uma árvore B+ de dois níveis: as entradas (id, posição) ficam ordenadas pelo id em
+ * páginas de ENTRADAS_POR_PAGINA, e o diretório com o primeiro id de cada página, lido
+ * ao abrir, faz o papel da raiz.
+ *
+ *   Cabeçalho (32 bytes): MAGICO | VERSAO | tamanho dos dados (long) |
+ *                         modificação dos dados em ns (long) | entradas | páginas
+ *   Diretório: primeiro id de cada página (int)
+ *   Páginas: id (int) | posição (long), a última possivelmente incompleta
+ *
+ * O tamanho e a data de modificação do arquivo de dados ficam no cabeçalho: se o
+ * arquivo mudou sem o índice acompanhar, correspondeA(...) recusa o índice. Quem lê as
+ * linhas ainda confere o id de cada uma.
+ */
+final class IndicePaginas {
+    static final int MAGICO = 0x49445850; // "IDXP"
+    static final int VERSAO = 1;
+    static final int ENTRADAS_POR_PAGINA = 256;
+    private static final int TAMANHO_CABECALHO = 32;
+    private static final int TAMANHO_ENTRADA = 12;
+
+    // Ids e posições encontrados, na ordem dos ids
+    static final class Entradas {
+        final int[] ids;
+        final long[] posicoes;
+
+        Entradas(int[] ids, long[] posicoes) {
+            this.ids = ids;
+            this.posicoes = posicoes;
+        }
+    }
+
+    // Acumula as entradas na ordem do arquivo de dados e grava o índice ordenado
+    static final class Construtor {
+        private int[] ids = new int[64];
+        private long[] posicoes = new long[64];
+        private int quantidade = 0;
+
+        void adicionar(int id, long posicao) {
+            if (quantidade == ids.length) {
+                ids = Arrays.copyOf(ids, quantidade * 2);
+                posicoes = Arrays.copyOf(posicoes, quantidade * 2);
+            }
+            ids[quantidade] = id;
+            posicoes[quantidade] = posicao;
+            quantidade++;
+        }
+
+        // Grava depois do arquivo de dados, com a assinatura dele. Sem fsync: se o índice
+        // se perder numa queda, correspondeA o recusa e ele é refeito na próxima leitura
+        void gravar(File arquivo, File dados) throws IOException {
+            long[] assinatura = assinatura(dados);
+            if (assinatura == null) {
+                return;
+            }
+            // id nos 32 bits altos e a ordem de chegada nos baixos: ordenar os longs ordena
+            // pelo id sem boxing
+            long[] ordem = new long[quantidade];
+            for (int i = 0; i < quantidade; i++) {
+                ordem[i] = ((long) ids[i] << 32) | i;
+            }
+            Arrays.sort(ordem);
+            int paginas = (quantidade + ENTRADAS_POR_PAGINA - 1) / ENTRADAS_POR_PAGINA;
+
+            Arquivos.substituirAtomicamente(arquivo, false, out -> {
+                DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(out));
+                saida.writeInt(MAGICO);
+                saida.writeInt(VERSAO);
+                saida.writeLong(assinatura[0]);
+                saida.writeLong(assinatura[1]);
+                saida.writeInt(quantidade);
+                saida.writeInt(paginas);
+                for (int pagina = 0; pagina < paginas; pagina++) {
+                    saida.writeInt((int) (ordem[pagina * ENTRADAS_POR_PAGINA] >>> 32));
+                }
+                for (long chave : ordem) {
+                    int i = (int) chave;
+                    saida.writeInt(ids[i]);
+                    saida.writeLong(posicoes[i]);
+                }
+                saida.flush();
+            });
+        }
+    }
+
+    private final File arquivo;
+    private final Object versaoLida;
+    private final long tamanhoDados;
+    private final long modificacaoDados;
+    private final int entradas;
+    private final int[] primeiroIdPorPagina;
+
+    private IndicePaginas(File arquivo, Object versaoLida, long tamanhoDados, long modificacaoDados,
+                          int entradas, int[] primeiroIdPorPagina) {
+        this.arquivo = arquivo;
+        this.versaoLida = versaoLida;
+        this.tamanhoDados = tamanhoDados;
+        this.modificacaoDados = modificacaoDados;
+        this.entradas = entradas;
+        this.primeiroIdPorPagina = primeiroIdPorPagina;
+    }
+
+    // Lê o cabeçalho e o diretório; null se o índice não existe ou não está no formato
+    static IndicePaginas abrir(File arquivo) {
+        Object versao = Arquivos.versao(arquivo);
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(new FileInputStream(arquivo)))) {
+            if (entrada.readInt() != MAGICO || entrada.readInt() != VERSAO) {
+                return null;
+            }
+            long tamanhoDados = entrada.readLong();
+            long modificacaoDados = entrada.readLong();
+            int entradas = entrada.readInt();
+            int[] primeiros = new int[entrada.readInt()];
+            for (int i = 0; i < primeiros.length; i++) {
+                primeiros[i] = entrada.readInt();
+            }
+            return new IndicePaginas(arquivo, versao, tamanhoDados, modificacaoDados, entradas, primeiros);
+        } catch (FileNotFoundException | EOFException e) {
+            // Ainda não gravado, ou interrompido no meio por uma versão antiga
+            return null;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // Indica se o arquivo do índice ainda é o mesmo lido em abrir
+    boolean atual() {
+        Object versao = Arquivos.versao(arquivo);
+        return versao != null && versao.equals(versaoLida);
+    }
+
+    // Indica se o índice foi gravado para o conteúdo atual do arquivo de dados
+    boolean correspondeA(File dados) {
+        long[] assinatura = assinatura(dados);
+        return assinatura != null && assinatura[0] == tamanhoDados && assinatura[1] == modificacaoDados;
+    }
+
+    // Posição do id, com uma página lida; vazio quando o id não está no índice e null se
+    // a leitura falhar
+    Entradas buscar(int id) {
+        int pagina = paginaDe(id);
+        if (pagina < 0) {
+            return new Entradas(new int[0], new long[0]);
+        }
+        ByteBuffer dados = lerPagina(pagina);
+        if (dados == null) {
+            return null;
+        }
+        int inicio = 0;
+        int fim = dados.limit() / TAMANHO_ENTRADA - 1;
+        while (inicio <= fim) {
+            int meio = (inicio + fim) >>> 1;
+            int atual = dados.getInt(meio * TAMANHO_ENTRADA);
+            if (atual < id) {
+                inicio = meio + 1;
+            } else if (atual > id) {
+                fim = meio - 1;
+            } else {
+                return new Entradas(new int[]{id}, new long[]{dados.getLong(meio * TAMANHO_ENTRADA + 4)});
+            }
+        }
+        return new Entradas(new int[0], new long[0]);
+    }
+
+    // Até limite entradas de id maior que depoisDoId, em ordem; lê só as páginas da faixa.
+    // null se a leitura falhar
+    Entradas faixa(int depoisDoId, int limite) {
+        int[] ids = new int[Math.min(limite, entradas)];
+        long[] posicoes = new long[ids.length];
+        int quantidade = 0;
+        for (int pagina = Math.max(paginaDe(depoisDoId), 0);
+             pagina < primeiroIdPorPagina.length && quantidade < ids.length; pagina++) {
+            ByteBuffer dados = lerPagina(pagina);
+            if (dados == null) {
+                return null;
+            }
+            for (int deslocamento = 0; deslocamento < dados.limit() && quantidade < ids.length;
+                 deslocamento += TAMANHO_ENTRADA) {
+                int id = dados.getInt(deslocamento);
+                if (id > depoisDoId) {
+                    ids[quantidade] = id;
+                    posicoes[quantidade] = dados.getLong(deslocamento + 4);
+                    quantidade++;
+                }
+            }
+        }
+        return new Entradas(Arrays.copyOf(ids, quantidade), Arrays.copyOf(posicoes, quantidade));
+    }
+
+    // Entrada de maior id, com uma página lida; vazio se o índice não tem entradas e null
+    // se a leitura falhar
+    Entradas ultima() {
+        if (entradas == 0) {
+            return new Entradas(new int[0], new long[0]);
+        }
+        ByteBuffer dados = lerPagina(primeiroIdPorPagina.length - 1);
+        if (dados == null) {
+            return null;
+        }
+        int deslocamento = dados.limit() - TAMANHO_ENTRADA;
+        return new Entradas(new int[]{dados.getInt(deslocamento)}, new long[]{dados.getLong(deslocamento + 4)});
+    }
+
+    // Última página cujo primeiro id não passa do id (-1 se o id é menor que todos)
+    private int paginaDe(int id) {
+        int posicao = Arrays.binarySearch(primeiroIdPorPagina, id);
+        return posicao >= 0 ? posicao : -posicao - 2;
+    }
+
+    private ByteBuffer lerPagina(int pagina) {
+        int entradasNaPagina = Math.min(ENTRADAS_POR_PAGINA, entradas - pagina * ENTRADAS_POR_PAGINA);
+        ByteBuffer dados = ByteBuffer.allocate(entradasNaPagina * TAMANHO_ENTRADA);
+        long posicao = TAMANHO_CABECALHO + 4L * primeiroIdPorPagina.length
+                + (long) pagina * ENTRADAS_POR_PAGINA * TAMANHO_ENTRADA;
+        try (FileChannel canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.READ)) {
+            while (dados.hasRemaining()) {
+                if (canal.read(dados, posicao + dados.position()) < 0) {
+                    throw new EOFException("Índice " + arquivo + " menor que o cabeçalho indica");
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+        dados.flip();
+        return dados;
+    }
+
+    // Tamanho e data de modificação (ns) do arquivo de dados; null se ele não existe
+    private static long[] assinatura(File dados) {
+        try {
+            BasicFileAttributes atributos = Files.readAttributes(dados.toPath(), BasicFileAttributes.class);
+            return new long[]{atributos.size(), atributos.lastModifiedTime().to(TimeUnit.NANOSECONDS)};
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package dao;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Índice de trigramas (sequências de 3 caracteres) do texto normalizado de cada entidade,
+ * para a busca enquanto o usuário digita. Cada palavra entra com dois espaços na frente,
+ * então "ana" gera "  a", " an" e "ana": termos de 1 ou 2 letras são buscados como início
+ * de palavra e termos maiores como trecho em qualquer posição.
+ *
+ * A busca parte da menor lista de ids entre os trigramas dos termos e confere cada
+ * candidato no texto guardado, então o custo não depende do total de entidades.
+ */
+class IndiceTrigramas<T> implements Indice<T> {
+    private final Function<T, String> extratorTexto;
+    private final Map<Integer, String> textoPorId = new HashMap<>();
+    private final Map<String, ListaInt> idsPorTrigrama = new HashMap<>();
+
+    IndiceTrigramas(Function<T, String> extratorTexto) {
+        this.extratorTexto = extratorTexto;
+    }
+
+    @Override
+    public void atualizar(int id, T entidade) {
+        String anterior = textoPorId.remove(id);
+        if (anterior != null) {
+            for (String trigrama : trigramas(anterior)) {
+                ListaInt ids = idsPorTrigrama.get(trigrama);
+                ids.remover(id);
+                if (ids.vazia()) {
+                    idsPorTrigrama.remove(trigrama);
+                }
+            }
+        }
+        if (entidade != null) {
+            String texto = TextoBusca.normalizar(extratorTexto.apply(entidade));
+            textoPorId.put(id, texto);
+            for (String trigrama : trigramas(texto)) {
+                idsPorTrigrama.computeIfAbsent(trigrama, t -> new ListaInt()).adicionar(id);
+            }
+        }
+    }
+
+    @Override
+    public void limpar() {
+        textoPorId.clear();
+        idsPorTrigrama.clear();
+    }
+
+    // Ids cujo texto contém todos os termos da consulta, até o limite. Os que começam pela
+    // consulta vêm primeiro, depois os que têm uma palavra começando pelo primeiro termo,
+    // e dentro de cada grupo em ordem alfabética
+    int[] buscar(String consulta, int limite) {
+        String normalizada = TextoBusca.normalizar(consulta);
+        if (normalizada.isEmpty()) {
+            return new int[0];
+        }
+        String[] termos = normalizada.split(" ");
+
+        ListaInt candidatos = null;
+        for (String termo : termos) {
+            for (String trigrama : trigramasDoTermo(termo)) {
+                ListaInt ids = idsPorTrigrama.get(trigrama);
+                if (ids == null) {
+                    return new int[0];
+                }
+                if (candidatos == null || ids.tamanho() < candidatos.tamanho()) {
+                    candidatos = ids;
+                }
+            }
+        }
+
+        List<Integer> encontrados = new ArrayList<>();
+        for (int i = 0; i < candidatos.tamanho(); i++) {
+            int id = candidatos.get(i);
+            if (contemTodos(textoPorId.get(id), termos)) {
+                encontrados.add(id);
+            }
+        }
+        encontrados.sort(Comparator.<Integer>comparingInt(id -> relevancia(textoPorId.get(id), normalizada, termos[0]))
+                .thenComparing(textoPorId::get));
+
+        int quantidade = Math.min(limite, encontrados.size());
+        int[] resultado = new int[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            resultado[i] = encontrados.get(i);
+        }
+        return resultado;
+    }
+
+    private static boolean contemTodos(String texto, String[] termos) {
+        for (String termo : termos) {
+            boolean encontrado = termo.length() >= 3
+                    ? texto.contains(termo)
+                    : texto.startsWith(termo) || texto.contains(" " + termo);
+            if (!encontrado) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int relevancia(String texto, String consulta, String primeiroTermo) {
+        if (texto.startsWith(consulta)) {
+            return 0;
+        }
+        return texto.contains(" " + primeiroTermo) ? 1 : 2;
+    }
+
+    // Trigramas que um texto com o termo precisa ter
+    private static Set<String> trigramasDoTermo(String termo) {
+        if (termo.length() >= 3) {
+            Set<String> trigramas = new HashSet<>();
+            for (int i = 0; i + 3 <= termo.length(); i++) {
+                trigramas.add(termo.substring(i, i + 3));
+            }
+            return trigramas;
+        }
+        String comEspacos = "  " + termo;
+        return Collections.singleton(comEspacos.substring(comEspacos.length() - 3));
+    }
+
+    private static Set<String> trigramas(String texto) {
+        Set<String> trigramas = new HashSet<>();
+        for (String palavra : texto.split(" ")) {
+            if (palavra.isEmpty()) {
+                continue;
+            }
+            String comEspacos = "  " + palavra;
+            for (int i = 0; i + 3 <= comEspacos.length(); i++) {
+                trigramas.add(comEspacos.substring(i, i + 3));
+            }
+        }
+        return trigramas;
+    }
+}
@@ -0,0 +1,61 @@
+package dao;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Índice de chave natural única (matrícula do aluno, código da disciplina...).
+ * O CacheEntidades chama validar antes de salvar, então uma chave já usada por
+ * outro id é recusada com IllegalArgumentException.
+ */
+class IndiceUnico<K, T> implements Indice<T> {
+    private final Function<T, K> extratorChave;
+    private final String mensagemDuplicada;
+    private final Map<K, Integer> idPorChave = new HashMap<>();
+    private final Map<Integer, K> chavePorId = new HashMap<>();
+
+    IndiceUnico(Function<T, K> extratorChave, String mensagemDuplicada) {
+        this.extratorChave = extratorChave;
+        this.mensagemDuplicada = mensagemDuplicada;
+    }
+
+    @Override
+    public void validar(int id, T entidade) {
+        Integer dono = idPorChave.get(extratorChave.apply(entidade));
+        if (dono != null && dono != id) {
+            throw new IllegalArgumentException(mensagemDuplicada);
+        }
+    }
+
+    @Override
+    public void atualizar(int id, T entidade) {
+        K anterior = chavePorId.remove(id);
+        // Arquivos antigos podem ter a mesma chave em dois ids; a chave só sai do índice
+        // quando aponta para este id
+        if (anterior != null && Objects.equals(idPorChave.get(anterior), id)) {
+            idPorChave.remove(anterior);
+        }
+
+        K chave = entidade != null ? extratorChave.apply(entidade) : null;
+        if (chave != null) {
+            chavePorId.put(id, chave);
+            idPorChave.put(chave, id);
+        }
+    }
+
+    @Override
+    public void limpar() {
+        idPorChave.clear();
+        chavePorId.clear();
+    }
+
+    boolean contem(K chave) {
+        return idPorChave.containsKey(chave);
+    }
+
+    Integer buscar(K chave) {
+        return idPorChave.get(chave);
+    }
+}
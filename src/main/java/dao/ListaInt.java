@@ -0,0 +1,57 @@
+package dao;
+
+import java.util.Arrays;
+
+/**
+ * Lista de ints sem boxing, usada pelos índices para guardar ids.
+ * Preserva a ordem de inserção.
+ */
+class ListaInt {
+    private int[] valores;
+    private int tamanho = 0;
+
+    ListaInt() {
+        this(4);
+    }
+
+    ListaInt(int capacidade) {
+        valores = new int[Math.max(capacidade, 1)];
+    }
+
+    void adicionar(int valor) {
+        if (tamanho == valores.length) {
+            valores = Arrays.copyOf(valores, tamanho * 2);
+        }
+        valores[tamanho++] = valor;
+    }
+
+    boolean remover(int valor) {
+        for (int i = 0; i < tamanho; i++) {
+            if (valores[i] == valor) {
+                System.arraycopy(valores, i + 1, valores, i, tamanho - i - 1);
+                tamanho--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int get(int posicao) {
+        if (posicao >= tamanho) {
+            throw new IndexOutOfBoundsException("Posição " + posicao + ", tamanho " + tamanho);
+        }
+        return valores[posicao];
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    boolean vazia() {
+        return tamanho == 0;
+    }
+
+    int[] paraArray() {
+        return Arrays.copyOf(valores, tamanho);
+    }
+}
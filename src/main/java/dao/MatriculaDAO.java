@@ -3,119 +3,147 @@ package dao;
 import classes.Matricula;
 import java.io.*;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class MatriculaDAO {
   private static final String ARQUIVO = "dados/matriculas.txt";
-  private static int proximoId = 1;
+  private static final String ARQUIVO_BINARIO = "dados/matriculas.bin";
+  private static final String INDICE_BINARIO = "dados/matriculas.bin.idx";
+  private static final CodecEntidade<Matricula> CODEC =
+      new CodecEntidade<>(Matricula::fromString, Matricula::toString, Matricula::getId, Matricula::setId);
+  private final Repositorio<Matricula> repositorio;
+  // Matrículas ATIVAS por (alunoId, disciplinaId), usado na verificação de duplicidade
+  private final IndiceHash<Long, Matricula> indiceAtivas;
+  private final IndiceHash<Integer, Matricula> indiceAluno;
+  private final IndiceHash<Integer, Matricula> indiceDisciplina;
+
+  // Ordenações aceitas por listar; empates são desfeitos pelo id
+  public enum Ordem {
+    ID(Matricula::getId),
+    DATA(Matricula::getDataMatricula),
+    ALUNO(Matricula::getAlunoId),
+    STATUS(Matricula::getStatus);
+
+    private final Function<Matricula, ? extends Comparable<?>> chave;
+
+    Ordem(Function<Matricula, ? extends Comparable<?>> chave) {
+      this.chave = chave;
+    }
+  }
 
   public MatriculaDAO() {
-    criarDiretorioSeNaoExistir();
-    carregarProximoId();
+    if (ConfiguracaoArmazenamento.isMatriculasBinario()) {
+      repositorio = Repositorio.comArmazenamento(ARQUIVO_BINARIO,
+          () -> new ArmazenamentoBinarioMatricula(new File(ARQUIVO_BINARIO), new File(ARQUIVO),
+              new File(INDICE_BINARIO)),
+          CODEC);
+    } else {
+      repositorio = Repositorio.doArquivo(ARQUIVO, CODEC);
+    }
+    indiceAtivas = repositorio.indice("ativas", () -> new IndiceHash<>(matricula ->
+        "ATIVA".equals(matricula.getStatus())
+            ? chaveAlunoDisciplina(matricula.getAlunoId(), matricula.getDisciplinaId())
+            : null));
+    indiceAluno = repositorio.indice("aluno", () -> new IndiceHash<>(Matricula::getAlunoId));
+    indiceDisciplina = repositorio.indice("disciplina", () -> new IndiceHash<>(Matricula::getDisciplinaId));
   }
 
-  private void criarDiretorioSeNaoExistir() {
-    File dir = new File("dados");
-    if (!dir.exists()) {
-      dir.mkdirs();
-    }
+  public void salvar(Matricula matricula) {
+    repositorio.salvar(matricula);
   }
 
-  private void carregarProximoId() {
-    List<Matricula> matriculas = listarTodos();
-    if (!matriculas.isEmpty()) {
-      proximoId = matriculas.stream().mapToInt(Matricula::getId).max().orElse(0) + 1;
-    }
+  // Salva todas com uma única gravação no arquivo; se alguma for recusada (status
+  // inválido no formato binário), nenhuma é gravada
+  public void salvarLote(Collection<Matricula> matriculas) {
+    repositorio.salvarLote(matriculas);
   }
 
-  public void salvar(Matricula matricula) {
-    if (matricula.getId() == 0) {
-      matricula.setId(proximoId++);
-    }
+  public void excluir(int id) {
+    repositorio.excluir(id);
+  }
 
-    List<Matricula> matriculas = listarTodos();
-    boolean encontrado = false;
+  public void excluirLote(Collection<Integer> ids) {
+    repositorio.excluirLote(ids);
+  }
 
-    for (int i = 0; i < matriculas.size(); i++) {
-      if (matriculas.get(i).getId() == matricula.getId()) {
-        matriculas.set(i, matricula);
-        encontrado = true;
-        break;
-      }
-    }
+  public Matricula buscarPorId(int id) {
+    return repositorio.buscarPorId(id);
+  }
 
-    if (!encontrado) {
-      matriculas.add(matricula);
-    }
+  public List<Matricula> listarTodos() {
+    return repositorio.listarTodos();
+  }
 
-    salvarTodos(matriculas);
+  // Página em ordem de id com os de id maior que depoisDoId (0 para a primeira página)
+  public Pagina<Matricula> listar(int depoisDoId, int limite) {
+    return repositorio.listar(depoisDoId, limite);
   }
 
-  public void excluir(int id) {
-    List<Matricula> matriculas = listarTodos();
-    matriculas.removeIf(matricula -> matricula.getId() == id);
-    salvarTodos(matriculas);
+  // Página na ordem escolhida, depois do cursor da página anterior (null para a primeira)
+  public Pagina<Matricula> listar(Ordem ordem, Cursor depois, int limite) {
+    return repositorio.listar(indiceOrdenado(ordem), depois, limite);
   }
 
-  public Matricula buscarPorId(int id) {
-    return listarTodos().stream()
-        .filter(matricula -> matricula.getId() == id)
-        .findFirst()
-        .orElse(null);
+  // Só os ids, na ordem escolhida; as entidades são buscadas depois com buscarPorIds
+  public int[] listarIds(Ordem ordem) {
+    return repositorio.listarIds(indiceOrdenado(ordem));
   }
 
-  public List<Matricula> listarTodos() {
-    List<Matricula> matriculas = new ArrayList<>();
-
-    try (BufferedReader reader = new BufferedReader(new FileReader(ARQUIVO))) {
-      String linha;
-      while ((linha = reader.readLine()) != null) {
-        if (!linha.trim().isEmpty()) {
-          matriculas.add(Matricula.fromString(linha));
-        }
-      }
-    } catch (FileNotFoundException e) {
-      // Arquivo ainda não existe, retorna lista vazia
-    } catch (IOException e) {
-      e.printStackTrace();
-    }
+  // Chamado por ContextoDados.aquecer()
+  void aquecer() {
+    repositorio.aquecer(indiceOrdenado(Ordem.ID));
+  }
 
-    return matriculas;
+  // Chamado por ContextoDados.getRegistrosIgnorados()
+  List<String> registrosIgnorados() {
+    return repositorio.registrosIgnorados();
   }
 
-  private void salvarTodos(List<Matricula> matriculas) {
-    try (BufferedWriter writer = new BufferedWriter(new FileWriter(ARQUIVO))) {
-      for (Matricula matricula : matriculas) {
-        writer.write(matricula.toString());
-        writer.newLine();
-      }
-    } catch (IOException e) {
-      e.printStackTrace();
-    }
+  // Na ordem dos ids, com null no lugar dos que foram excluídos
+  public List<Matricula> buscarPorIds(int[] ids) {
+    return repositorio.buscarPorIds(ids);
+  }
+
+  // Índice de cada ordenação criado no primeiro uso
+  private IndiceOrdenado<Matricula> indiceOrdenado(Ordem ordem) {
+    return repositorio.indiceOrdenado(ordem.name(), ordem.chave);
+  }
+
+  // Avisado de cada inclusão, alteração e exclusão feita por qualquer MatriculaDAO, na thread
+  // que gravou; quem guarda o ouvinte por mais tempo que o DAO deve removê-lo ao terminar
+  public void adicionarOuvinte(Consumer<Alteracao<Matricula>> ouvinte) {
+    repositorio.adicionarOuvinte(ouvinte);
+  }
+
+  public void removerOuvinte(Consumer<Alteracao<Matricula>> ouvinte) {
+    repositorio.removerOuvinte(ouvinte);
+  }
+
+  // Percorre todos sem montar uma lista; filtros com findFirst/anyMatch param no primeiro encontrado
+  public Stream<Matricula> stream() {
+    return repositorio.stream();
   }
 
   public List<Matricula> buscarPorAluno(int alunoId) {
-    return listarTodos().stream()
-        .filter(matricula -> matricula.getAlunoId() == alunoId)
-        .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+    return repositorio.buscarPorIndice(indiceAluno, alunoId);
   }
 
   public List<Matricula> buscarPorDisciplina(int disciplinaId) {
-    return listarTodos().stream()
-        .filter(matricula -> matricula.getDisciplinaId() == disciplinaId)
-        .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+    return repositorio.buscarPorIndice(indiceDisciplina, disciplinaId);
   }
 
   public boolean existeMatricula(int alunoId, int disciplinaId) {
-    return listarTodos().stream()
-        .anyMatch(matricula -> matricula.getAlunoId() == alunoId &&
-            matricula.getDisciplinaId() == disciplinaId &&
-            "ATIVA".equals(matricula.getStatus()));
+    return existeMatriculaAtiva(alunoId, disciplinaId);
   }
 
   public boolean existeMatriculaAtiva(int alunoId, int disciplinaId) {
-    return listarTodos().stream()
-        .anyMatch(matricula -> matricula.getAlunoId() == alunoId &&
-            matricula.getDisciplinaId() == disciplinaId &&
-            "ATIVA".equals(matricula.getStatus()));
+    Long chave = chaveAlunoDisciplina(alunoId, disciplinaId);
+    return repositorio.ler(() -> indiceAtivas.contem(chave));
+  }
+
+  private static Long chaveAlunoDisciplina(int alunoId, int disciplinaId) {
+    return ((long) alunoId << 32) | (disciplinaId & 0xFFFFFFFFL);
   }
 }
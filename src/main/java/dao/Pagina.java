@@ -0,0 +1,30 @@
+package dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Uma página de uma listagem paginada e o cursor para buscar a seguinte.
+ */
+public final class Pagina<T> {
+    private final List<T> itens;
+    private final Cursor proximo;
+
+    Pagina(List<T> itens, Cursor proximo) {
+        this.itens = Collections.unmodifiableList(itens);
+        this.proximo = proximo;
+    }
+
+    public List<T> getItens() {
+        return itens;
+    }
+
+    // Cursor para a próxima página; null quando esta é a última
+    public Cursor getProximo() {
+        return proximo;
+    }
+
+    public boolean temProxima() {
+        return proximo != null;
+    }
+}
@@ -1,100 +1,129 @@
 package dao;
 
 import classes.Professor;
-import java.io.*;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class ProfessorDAO {
     private static final String ARQUIVO = "dados/professores.txt";
-    private static int proximoId = 1;
+    private static final CodecEntidade<Professor> CODEC =
+            new CodecEntidade<>(Professor::fromString, Professor::toString, Professor::getId, Professor::setId);
+    private final Repositorio<Professor> repositorio;
+    private final IndiceUnico<String, Professor> indiceIdentificador;
+    private final IndiceInvertido<Professor> indicePesquisa;
 
-    public ProfessorDAO() {
-        criarDiretorioSeNaoExistir();
-        carregarProximoId();
-    }
+    // Ordenações aceitas por listar; empates são desfeitos pelo id
+    public enum Ordem {
+        ID(Professor::getId),
+        NOME(professor -> IndiceOrdenado.texto(professor.getNome())),
+        IDENTIFICADOR(Professor::getIdentificador);
+
+        private final Function<Professor, ? extends Comparable<?>> chave;
 
-    private void criarDiretorioSeNaoExistir() {
-        File dir = new File("dados");
-        if (!dir.exists()) {
-            dir.mkdirs();
+        Ordem(Function<Professor, ? extends Comparable<?>> chave) {
+            this.chave = chave;
         }
     }
 
-    private void carregarProximoId() {
-        List<Professor> professores = listarTodos();
-        if (!professores.isEmpty()) {
-            proximoId = professores.stream().mapToInt(Professor::getId).max().orElse(0) + 1;
-        }
+    public ProfessorDAO() {
+        repositorio = Repositorio.doArquivo(ARQUIVO, CODEC);
+        indiceIdentificador = repositorio.indice("identificador", () -> new IndiceUnico<>(Professor::getIdentificador, "Identificador já existe!"));
+        indicePesquisa = repositorio.indice("pesquisa", () -> new IndiceInvertido<Professor>()
+                .campo(Professor::getNome, 3)
+                .campo(Professor::getDepartamento, 2)
+                .campo(Professor::getEmail, 1));
     }
 
     public void salvar(Professor professor) {
-        if (professor.getId() == 0) {
-            professor.setId(proximoId++);
-        }
-        
-        List<Professor> professores = listarTodos();
-        boolean encontrado = false;
-        
-        for (int i = 0; i < professores.size(); i++) {
-            if (professores.get(i).getId() == professor.getId()) {
-                professores.set(i, professor);
-                encontrado = true;
-                break;
-            }
-        }
-        
-        if (!encontrado) {
-            professores.add(professor);
-        }
-        
-        salvarTodos(professores);
+        repositorio.salvar(professor);
+    }
+
+    // Salva todos com uma única gravação no arquivo; se algum for recusado (chave
+    // duplicada), nenhum é gravado
+    public void salvarLote(Collection<Professor> professores) {
+        repositorio.salvarLote(professores);
     }
 
     public void excluir(int id) {
-        List<Professor> professores = listarTodos();
-        professores.removeIf(professor -> professor.getId() == id);
-        salvarTodos(professores);
+        repositorio.excluir(id);
+    }
+
+    public void excluirLote(Collection<Integer> ids) {
+        repositorio.excluirLote(ids);
     }
 
     public Professor buscarPorId(int id) {
-        return listarTodos().stream()
-                .filter(professor -> professor.getId() == id)
-                .findFirst()
-                .orElse(null);
+        return repositorio.buscarPorId(id);
     }
 
     public List<Professor> listarTodos() {
-        List<Professor> professores = new ArrayList<>();
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(ARQUIVO))) {
-            String linha;
-            while ((linha = reader.readLine()) != null) {
-                if (!linha.trim().isEmpty()) {
-                    professores.add(Professor.fromString(linha));
-                }
-            }
-        } catch (FileNotFoundException e) {
-            // Arquivo ainda não existe, retorna lista vazia
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        
-        return professores;
-    }
-
-    private void salvarTodos(List<Professor> professores) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(ARQUIVO))) {
-            for (Professor professor : professores) {
-                writer.write(professor.toString());
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        return repositorio.listarTodos();
+    }
+
+    // Página em ordem de id com os de id maior que depoisDoId (0 para a primeira página)
+    public Pagina<Professor> listar(int depoisDoId, int limite) {
+        return repositorio.listar(depoisDoId, limite);
+    }
+
+    // Página na ordem escolhida, depois do cursor da página anterior (null para a primeira)
+    public Pagina<Professor> listar(Ordem ordem, Cursor depois, int limite) {
+        return repositorio.listar(indiceOrdenado(ordem), depois, limite);
+    }
+
+    // Só os ids, na ordem escolhida; as entidades são buscadas depois com buscarPorIds
+    public int[] listarIds(Ordem ordem) {
+        return repositorio.listarIds(indiceOrdenado(ordem));
+    }
+
+    // Chamado por ContextoDados.aquecer()
+    void aquecer() {
+        repositorio.aquecer(indiceOrdenado(Ordem.ID));
+    }
+
+    // Chamado por ContextoDados.getRegistrosIgnorados()
+    List<String> registrosIgnorados() {
+        return repositorio.registrosIgnorados();
+    }
+
+    // Na ordem dos ids, com null no lugar dos que foram excluídos
+    public List<Professor> buscarPorIds(int[] ids) {
+        return repositorio.buscarPorIds(ids);
+    }
+
+    // Índice de cada ordenação criado no primeiro uso
+    private IndiceOrdenado<Professor> indiceOrdenado(Ordem ordem) {
+        return repositorio.indiceOrdenado(ordem.name(), ordem.chave);
+    }
+
+    // Pesquisa por palavras no nome, no departamento e no email, sem diferenciar acentos e
+    // maiúsculas; todas as palavras precisam aparecer (inteiras ou como início de palavra).
+    // Os mais relevantes vêm primeiro: nome pesa mais que departamento, que pesa mais que email
+    public List<Professor> pesquisar(String consulta, int limite) {
+        return repositorio.pesquisar(indicePesquisa, consulta, limite);
+    }
+
+    // Avisado de cada inclusão, alteração e exclusão feita por qualquer ProfessorDAO, na thread
+    // que gravou; quem guarda o ouvinte por mais tempo que o DAO deve removê-lo ao terminar
+    public void adicionarOuvinte(Consumer<Alteracao<Professor>> ouvinte) {
+        repositorio.adicionarOuvinte(ouvinte);
+    }
+
+    public void removerOuvinte(Consumer<Alteracao<Professor>> ouvinte) {
+        repositorio.removerOuvinte(ouvinte);
+    }
+
+    // Percorre todos sem montar uma lista; filtros com findFirst/anyMatch param no primeiro encontrado
+    public Stream<Professor> stream() {
+        return repositorio.stream();
     }
 
     public boolean existeIdentificador(String identificador) {
-        return listarTodos().stream()
-                .anyMatch(professor -> professor.getIdentificador().equals(identificador));
+        return repositorio.ler(() -> indiceIdentificador.contem(identificador));
+    }
+
+    public Professor buscarPorIdentificador(String identificador) {
+        return repositorio.buscarPorIndice(indiceIdentificador, identificador);
     }
 }
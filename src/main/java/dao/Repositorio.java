@@ -0,0 +1,182 @@
+package dao;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Acesso genérico a um arquivo de entidades, ao qual os DAOs delegam: atribuição de ids,
+ * gravação, consultas por id, páginas, ordenações e índices. Cache, bloqueios, lotes e
+ * formato de armazenamento ficam no CacheEntidades, e o que é próprio de cada entidade
+ * (linha do arquivo e id) no CodecEntidade; os DAOs só declaram seus índices e
+ * traduzem as consultas da entidade para eles.
+ */
+class Repositorio<T> {
+    private final CacheEntidades<T> cache;
+    private final CodecEntidade<T> codec;
+
+    private Repositorio(CacheEntidades<T> cache, CodecEntidade<T> codec) {
+        this.cache = cache;
+        this.codec = codec;
+    }
+
+    // Arquivo no formato configurado em ConfiguracaoArmazenamento (texto ou journal)
+    static <T> Repositorio<T> doArquivo(String caminho, CodecEntidade<T> codec) {
+        criarDiretorio(caminho);
+        return new Repositorio<>(CacheEntidades.doArquivo(caminho, codec), codec);
+    }
+
+    // Arquivo com uma forma de armazenamento própria da entidade
+    static <T> Repositorio<T> comArmazenamento(String caminho, Supplier<Armazenamento<T>> criar,
+                                               CodecEntidade<T> codec) {
+        criarDiretorio(caminho);
+        return new Repositorio<>(CacheEntidades.comArmazenamento(caminho, criar, codec), codec);
+    }
+
+    private static void criarDiretorio(String caminho) {
+        File dir = new File(caminho).getParentFile();
+        if (dir != null && !dir.exists()) {
+            dir.mkdirs();
+        }
+    }
+
+    // Índice registrado com este nome, criado e preenchido no primeiro uso
+    <I extends Indice<T>> I indice(String nome, Supplier<I> criar) {
+        return cache.indice(nome, criar);
+    }
+
+    // Índice de uma ordenação, criado no primeiro uso; empates são desfeitos pelo id
+    IndiceOrdenado<T> indiceOrdenado(String nome, Function<T, ? extends Comparable<?>> chave) {
+        return cache.indice("ordem:" + nome, () -> new IndiceOrdenado<>(chave));
+    }
+
+    void salvar(T entidade) {
+        boolean novo = atribuirId(entidade);
+        try {
+            cache.salvar(entidade);
+        } catch (RuntimeException e) {
+            if (novo) {
+                codec.definirId(entidade, 0);
+            }
+            throw e;
+        }
+    }
+
+    // Uma única gravação no arquivo; se alguma for recusada, nenhuma é gravada e as
+    // entidades que receberam id aqui voltam a ficar sem id
+    void salvarLote(Collection<T> lote) {
+        List<T> novos = new ArrayList<>();
+        for (T entidade : lote) {
+            if (atribuirId(entidade)) {
+                novos.add(entidade);
+            }
+        }
+        try {
+            cache.salvarLote(lote);
+        } catch (RuntimeException e) {
+            for (T entidade : novos) {
+                codec.definirId(entidade, 0);
+            }
+            throw e;
+        }
+    }
+
+    // Id novo para quem ainda não tem (retorna true); um id já definido é registrado na
+    // sequência para não ser entregue de novo. Os ids de uma gravação recusada não voltam
+    // para a sequência, como os do bloco reservado que um processo não chega a usar
+    private boolean atribuirId(T entidade) {
+        int id = codec.id(entidade);
+        if (id == 0) {
+            codec.definirId(entidade, cache.sequencia().proximoId());
+            return true;
+        }
+        cache.sequencia().registrarUsado(id);
+        return false;
+    }
+
+    void excluir(int id) {
+        cache.excluir(id);
+    }
+
+    void excluirLote(Collection<Integer> ids) {
+        cache.excluirLote(ids);
+    }
+
+    T buscarPorId(int id) {
+        return cache.buscarPorId(id);
+    }
+
+    List<T> listarTodos() {
+        return cache.listarTodos();
+    }
+
+    // Página em ordem de id com os de id maior que depoisDoId (0 para a primeira página)
+    Pagina<T> listar(int depoisDoId, int limite) {
+        return cache.paginarPorId(indiceOrdenado("ID", codec::id), depoisDoId, limite);
+    }
+
+    // Página na ordem do índice, depois do cursor da página anterior (null para a primeira)
+    Pagina<T> listar(IndiceOrdenado<T> indice, Cursor depois, int limite) {
+        return cache.paginar(indice, depois, limite);
+    }
+
+    int[] listarIds(IndiceOrdenado<T> indice) {
+        return cache.ids(indice);
+    }
+
+    // Carrega o arquivo e monta o índice. Com aquecimento parcial configurado, uma entidade
+    // com o índice de ids no disco em dia fica sem carregar: as buscas por id leem só as
+    // linhas pedidas até alguém precisar do arquivo todo
+    void aquecer(IndiceOrdenado<T> indice) {
+        if (ConfiguracaoArmazenamento.isAquecimentoParcial() && cache.temIndicePorId()) {
+            return;
+        }
+        cache.ids(indice);
+    }
+
+    List<String> registrosIgnorados() {
+        return cache.registrosIgnorados();
+    }
+
+    List<T> buscarPorIds(int[] ids) {
+        return cache.buscarPorIds(ids);
+    }
+
+    <K> List<T> buscarPorIndice(IndiceHash<K, T> indice, K chave) {
+        return cache.buscarPorIndice(indice, chave);
+    }
+
+    <K> T buscarPorIndice(IndiceUnico<K, T> indice, K chave) {
+        return cache.buscarPorIndice(indice, chave);
+    }
+
+    List<T> buscarPorTexto(IndiceTrigramas<T> indice, String texto, int limite) {
+        return cache.buscarPorTexto(indice, texto, limite);
+    }
+
+    List<T> pesquisar(IndiceInvertido<T> indice, String consulta, int limite) {
+        return cache.pesquisar(indice, consulta, limite);
+    }
+
+    // Consulta direta aos índices, com o cache atualizado e o bloqueio de leitura
+    <R> R ler(Supplier<R> consulta) {
+        return cache.ler(consulta);
+    }
+
+    void adicionarOuvinte(Consumer<Alteracao<T>> ouvinte) {
+        cache.adicionarOuvinte(ouvinte);
+    }
+
+    void removerOuvinte(Consumer<Alteracao<T>> ouvinte) {
+        cache.removerOuvinte(ouvinte);
+    }
+
+    Stream<T> stream() {
+        return cache.stream();
+    }
+}
@@ -0,0 +1,141 @@
+package dao;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Gerador de ids de uma entidade, seguro entre threads e entre processos.
+ *
+ * Os ids são reservados em blocos: o arquivo .seq guarda o primeiro id ainda não
+ * reservado por nenhum processo e é lido e atualizado sob FileLock. Dentro do bloco
+ * reservado, cada id sai de um AtomicInteger sem bloqueio. Ids de um bloco não usado
+ * até o fim do processo ficam como lacunas na numeração.
+ *
+ * Um id definido pelo chamador acima do que o arquivo .seq já cobre também é gravado
+ * nele, para que outro processo não o gere de novo.
+ */
+class SequenciaId {
+    static final int TAMANHO_BLOCO = 100;
+
+    private final File arquivo;
+    private final IntSupplier maiorIdExistente;
+    private final AtomicInteger proximo = new AtomicInteger(0);
+    private volatile int limiteReservado = 0;
+    // Menor valor que o .seq pode ter: o arquivo só cresce, então ids abaixo disto já
+    // estão cobertos sem abri-lo
+    private volatile int limiteNoArquivo = 0;
+    private boolean conferiuDados = false;
+
+    SequenciaId(File arquivo, IntSupplier maiorIdExistente) {
+        this.arquivo = arquivo;
+        this.maiorIdExistente = maiorIdExistente;
+    }
+
+    int proximoId() {
+        while (true) {
+            int id = proximo.get();
+            if (id < limiteReservado) {
+                if (proximo.compareAndSet(id, id + 1)) {
+                    return id;
+                }
+            } else {
+                reservarBloco();
+            }
+        }
+    }
+
+    // Garante que um id definido pelo chamador (importação, edição) não será gerado depois,
+    // por este nem por outro processo. Não deve ser chamado com o cache bloqueado:
+    // reservarBloco consulta o cache segurando o mesmo monitor
+    void registrarUsado(int id) {
+        proximo.updateAndGet(atual -> Math.max(atual, id + 1));
+        if (id >= limiteNoArquivo) {
+            gravarUsado(id);
+        }
+    }
+
+    private synchronized void gravarUsado(int id) {
+        if (id < limiteNoArquivo) {
+            return;
+        }
+        try (FileChannel canal = abrir()) {
+            FileLock bloqueio = canal.lock();
+            try {
+                int limite = lerLimite(canal);
+                if (id >= limite) {
+                    limite = id + 1;
+                    gravarLimite(canal, limite);
+                }
+                limiteNoArquivo = limite;
+            } finally {
+                bloqueio.release();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível registrar o id " + id + " em " + arquivo, e);
+        }
+    }
+
+    private synchronized void reservarBloco() {
+        if (proximo.get() < limiteReservado) {
+            // Outra thread já reservou enquanto esta esperava
+            return;
+        }
+
+        try (FileChannel canal = abrir()) {
+            FileLock bloqueio = canal.lock();
+            try {
+                int inicio = Math.max(lerLimite(canal), proximo.get());
+                if (!conferiuDados) {
+                    // Primeira reserva deste processo: os dados podem ter ids acima do
+                    // arquivo .seq (arquivo criado agora ou dados copiados de outro lugar)
+                    inicio = Math.max(inicio, maiorIdExistente.getAsInt() + 1);
+                    conferiuDados = true;
+                }
+                int limite = inicio + TAMANHO_BLOCO;
+                gravarLimite(canal, limite);
+                limiteNoArquivo = limite;
+
+                // proximo antes do limite: até o limite subir, as outras threads caem aqui.
+                // O máximo preserva um registrarUsado que tenha ocorrido durante a reserva
+                int inicioReservado = inicio;
+                proximo.updateAndGet(atual -> Math.max(atual, inicioReservado));
+                limiteReservado = limite;
+            } finally {
+                bloqueio.release();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível reservar ids em " + arquivo, e);
+        }
+    }
+
+    private FileChannel abrir() throws IOException {
+        return FileChannel.open(arquivo.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static int lerLimite(FileChannel canal) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(canal.size(), 32));
+        canal.read(buffer, 0);
+        String texto = new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII).trim();
+        if (texto.isEmpty()) {
+            return 1;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(texto));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    private static void gravarLimite(FileChannel canal, int limite) throws IOException {
+        canal.truncate(0);
+        canal.write(ByteBuffer.wrap((limite + "\n").getBytes(StandardCharsets.US_ASCII)), 0);
+    }
+}
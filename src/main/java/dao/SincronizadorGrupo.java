@@ -0,0 +1,73 @@
+package dao;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Commit em grupo para um arquivo gravado no lugar (journal, binário de matrículas).
+ *
+ * Cada gravação é registrada e, depois de soltar os bloqueios, quem gravou chama
+ * aguardar(). Só uma thread por vez faz o fsync, e ele cobre todas as gravações
+ * registradas até aquele momento: as threads que gravaram enquanto o fsync anterior
+ * acontecia são atendidas juntas pelo próximo, em vez de um fsync para cada uma.
+ */
+final class SincronizadorGrupo {
+    private final File arquivo;
+    private long gravacoes = 0;
+    private long sincronizadas = 0;
+    private boolean sincronizando = false;
+
+    SincronizadorGrupo(File arquivo) {
+        this.arquivo = arquivo;
+    }
+
+    synchronized void registrarGravacao() {
+        gravacoes++;
+    }
+
+    // Retorna quando tudo o que foi registrado até a chamada estiver no disco
+    void aguardar() {
+        long alvo;
+        synchronized (this) {
+            long minha = gravacoes;
+            while (sincronizadas < minha && sincronizando) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if (sincronizadas >= minha) {
+                return;
+            }
+            sincronizando = true;
+            alvo = gravacoes;
+        }
+
+        boolean forcado = false;
+        try (FileChannel canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.WRITE)) {
+            canal.force(false);
+            forcado = true;
+        } catch (NoSuchFileException e) {
+            // Arquivo excluído ou trocado por um novo, que já foi forçado antes do rename
+            forcado = true;
+        } catch (IOException e) {
+            // Quem gravou fica sabendo que a gravação pode não estar no disco; as threads
+            // que esperavam este fsync tentam o seu
+            throw new UncheckedIOException("Falha ao sincronizar " + arquivo, e);
+        } finally {
+            synchronized (this) {
+                if (forcado) {
+                    sincronizadas = Math.max(sincronizadas, alvo);
+                }
+                sincronizando = false;
+                notifyAll();
+            }
+        }
+    }
+}
@@ -1,35 +1,49 @@
 package gui;
 
 import classes.Aluno;
+import dao.Alteracao;
 import dao.AlunoDAO;
+import dao.ContextoDados;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.List;
+import java.util.function.Consumer;
 
 public class AlunoFrame extends JFrame {
     private AlunoDAO alunoDAO;
     private JTable table;
-    private DefaultTableModel tableModel;
+    private ModeloTabelaSobDemanda<Aluno> tableModel;
     private JTextField txtNome, txtMatricula, txtEmail, txtTelefone;
     private JButton btnSalvar, btnEditar, btnExcluir, btnLimpar;
+    private JProgressBar progresso;
+    private TarefasEmSegundoPlano tarefas;
+    private Consumer<Alteracao<Aluno>> ouvinteAlunos;
     private int alunoSelecionadoId = 0;
 
-    public AlunoFrame() {
-        alunoDAO = new AlunoDAO();
+    public AlunoFrame(ContextoDados contexto) {
+        alunoDAO = contexto.getAlunoDAO();
         initializeComponents();
         carregarTabela();
     }
 
+    @Override
+    public void dispose() {
+        alunoDAO.removerOuvinte(ouvinteAlunos);
+        super.dispose();
+    }
+
     private void initializeComponents() {
         setTitle("Gerenciar Alunos");
         setSize(800, 600);
         setLocationRelativeTo(null);
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
+        // Leituras e gravações rodam fora da EDT; a barra aparece enquanto houver alguma
+        progresso = new JProgressBar();
+        tarefas = new TarefasEmSegundoPlano(progresso);
+
         // Painel principal
         JPanel mainPanel = new JPanel(new BorderLayout());
 
@@ -92,12 +106,24 @@ public class AlunoFrame extends JFrame {
         panel.setBorder(BorderFactory.createTitledBorder("Lista de Alunos"));
 
         String[] colunas = {"ID", "Nome", "Matrícula", "Email", "Telefone"};
-        tableModel = new DefaultTableModel(colunas, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new ModeloTabelaSobDemanda<>(colunas,
+            () -> alunoDAO.listarIds(AlunoDAO.Ordem.ID),
+            alunoDAO::buscarPorIds,
+            (aluno, coluna) -> {
+                switch (coluna) {
+                    case 0: return aluno.getId();
+                    case 1: return aluno.getNome();
+                    case 2: return aluno.getMatricula();
+                    case 3: return aluno.getEmail();
+                    default: return aluno.getTelefone();
+                }
+            });
+
+        tableModel.setTarefas(tarefas);
+
+        // Cada gravação, desta tela ou de outra, inclui, atualiza ou remove só a sua linha
+        ouvinteAlunos = tableModel::aplicar;
+        alunoDAO.adicionarOuvinte(ouvinteAlunos);
 
         table = new JTable(tableModel);
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -130,81 +156,72 @@ public class AlunoFrame extends JFrame {
         panel.add(btnEditar);
         panel.add(btnExcluir);
         panel.add(btnLimpar);
+        panel.add(progresso);
+        tarefas.desabilitarAoGravar(btnSalvar, btnEditar, btnExcluir);
 
         return panel;
     }
 
     private void carregarTabela() {
-        tableModel.setRowCount(0);
-        List<Aluno> alunos = alunoDAO.listarTodos();
-
-        for (Aluno aluno : alunos) {
-            Object[] row = {
-                aluno.getId(),
-                aluno.getNome(),
-                aluno.getMatricula(),
-                aluno.getEmail(),
-                aluno.getTelefone()
-            };
-            tableModel.addRow(row);
-        }
+        tableModel.recarregar();
     }
 
     private void preencherFormulario() {
         int selectedRow = table.getSelectedRow();
         if (selectedRow >= 0) {
-            alunoSelecionadoId = (Integer) tableModel.getValueAt(selectedRow, 0);
-            txtNome.setText((String) tableModel.getValueAt(selectedRow, 1));
-            txtMatricula.setText((String) tableModel.getValueAt(selectedRow, 2));
-            txtEmail.setText((String) tableModel.getValueAt(selectedRow, 3));
-            txtTelefone.setText((String) tableModel.getValueAt(selectedRow, 4));
+            Aluno aluno = tableModel.getLinha(selectedRow);
+            if (aluno != null) {
+                alunoSelecionadoId = aluno.getId();
+                txtNome.setText(aluno.getNome());
+                txtMatricula.setText(aluno.getMatricula());
+                txtEmail.setText(aluno.getEmail());
+                txtTelefone.setText(aluno.getTelefone());
+            }
         }
     }
 
     private void salvarAluno() {
         if (validarCampos()) {
-            try {
-                Aluno aluno = new Aluno(
-                    txtNome.getText().trim(),
-                    txtMatricula.getText().trim(),
-                    txtEmail.getText().trim(),
-                    txtTelefone.getText().trim()
-                );
+            Aluno aluno = new Aluno(
+                txtNome.getText().trim(),
+                txtMatricula.getText().trim(),
+                txtEmail.getText().trim(),
+                txtTelefone.getText().trim()
+            );
 
+            boolean novo = alunoSelecionadoId == 0;
+            tarefas.gravar(() -> {
                 // Verificar se matrícula já existe (apenas para novos alunos)
-                if (alunoSelecionadoId == 0 && alunoDAO.existeMatricula(aluno.getMatricula())) {
+                if (novo && alunoDAO.existeMatricula(aluno.getMatricula())) {
+                    return false;
+                }
+                alunoDAO.salvar(aluno);
+                return true;
+            }, salvo -> {
+                if (!salvo) {
                     JOptionPane.showMessageDialog(this, "Matrícula já existe!");
                     return;
                 }
-
-                alunoDAO.salvar(aluno);
-                carregarTabela();
                 limparFormulario();
                 JOptionPane.showMessageDialog(this, "Aluno salvo com sucesso!");
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, "Erro ao salvar aluno: " + e.getMessage());
-            }
+            }, e -> JOptionPane.showMessageDialog(this, "Erro ao salvar aluno: " + e.getMessage()));
         }
     }
 
     private void editarAluno() {
         if (alunoSelecionadoId > 0 && validarCampos()) {
-            try {
-                Aluno aluno = new Aluno(
-                    alunoSelecionadoId,
-                    txtNome.getText().trim(),
-                    txtMatricula.getText().trim(),
-                    txtEmail.getText().trim(),
-                    txtTelefone.getText().trim()
-                );
+            Aluno aluno = new Aluno(
+                alunoSelecionadoId,
+                txtNome.getText().trim(),
+                txtMatricula.getText().trim(),
+                txtEmail.getText().trim(),
+                txtTelefone.getText().trim()
+            );
 
-                alunoDAO.salvar(aluno);
-                carregarTabela();
+            tarefas.gravar(() -> alunoDAO.salvar(aluno), () -> {
                 limparFormulario();
                 JOptionPane.showMessageDialog(this, "Aluno editado com sucesso!");
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, "Erro ao editar aluno: " + e.getMessage());
-            }
+            }, e -> JOptionPane.showMessageDialog(this, "Erro ao editar aluno: " + e.getMessage()));
         } else {
             JOptionPane.showMessageDialog(this, "Selecione um aluno para editar!");
         }
@@ -220,14 +237,11 @@ public class AlunoFrame extends JFrame {
             );
 
             if (resposta == JOptionPane.YES_OPTION) {
-                try {
-                    alunoDAO.excluir(alunoSelecionadoId);
-                    carregarTabela();
+                int id = alunoSelecionadoId;
+                tarefas.gravar(() -> alunoDAO.excluir(id), () -> {
                     limparFormulario();
                     JOptionPane.showMessageDialog(this, "Aluno excluído com sucesso!");
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(this, "Erro ao excluir aluno: " + e.getMessage());
-                }
+                }, e -> JOptionPane.showMessageDialog(this, "Erro ao excluir aluno: " + e.getMessage()));
             }
         } else {
             JOptionPane.showMessageDialog(this, "Selecione um aluno para excluir!");
@@ -2,38 +2,60 @@ package gui;
 
 import classes.Disciplina;
 import classes.Professor;
+import dao.Alteracao;
+import dao.ContextoDados;
 import dao.DisciplinaDAO;
 import dao.ProfessorDAO;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public class DisciplinaFrame extends JFrame {
     private DisciplinaDAO disciplinaDAO;
     private ProfessorDAO professorDAO;
     private JTable table;
-    private DefaultTableModel tableModel;
+    private ModeloTabelaSobDemanda<Disciplina> tableModel;
     private JTextField txtNome, txtCodigo, txtCargaHoraria, txtSemestre;
     private JComboBox<Professor> cbProfessor;
     private JButton btnSalvar, btnEditar, btnExcluir, btnLimpar;
+    private JProgressBar progresso;
+    private TarefasEmSegundoPlano tarefas;
+    private Consumer<Alteracao<Disciplina>> ouvinteDisciplinas;
+    private Consumer<Alteracao<Professor>> ouvinteProfessores;
+    // Preenchido em segundo plano junto com cada bloco da tabela e lido na EDT
+    private final Map<Integer, String> nomesProfessores = new ConcurrentHashMap<>();
     private int disciplinaSelecionadaId = 0;
 
-    public DisciplinaFrame() {
-        disciplinaDAO = new DisciplinaDAO();
-        professorDAO = new ProfessorDAO();
+    public DisciplinaFrame(ContextoDados contexto) {
+        disciplinaDAO = contexto.getDisciplinaDAO();
+        professorDAO = contexto.getProfessorDAO();
         initializeComponents();
         carregarComboBoxProfessores();
         carregarTabela();
     }
 
+    @Override
+    public void dispose() {
+        disciplinaDAO.removerOuvinte(ouvinteDisciplinas);
+        professorDAO.removerOuvinte(ouvinteProfessores);
+        super.dispose();
+    }
+
     private void initializeComponents() {
         setTitle("Gerenciar Disciplinas");
         setSize(900, 600);
         setLocationRelativeTo(null);
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
+        // Leituras e gravações rodam fora da EDT; a barra aparece enquanto houver alguma
+        progresso = new JProgressBar();
+        tarefas = new TarefasEmSegundoPlano(progresso);
+
         // Painel principal
         JPanel mainPanel = new JPanel(new BorderLayout());
 
@@ -113,12 +135,29 @@ public class DisciplinaFrame extends JFrame {
         panel.setBorder(BorderFactory.createTitledBorder("Lista de Disciplinas"));
 
         String[] colunas = {"ID", "Nome", "Código", "Carga Horária", "Semestre", "Professor"};
-        tableModel = new DefaultTableModel(colunas, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new ModeloTabelaSobDemanda<>(colunas,
+            () -> disciplinaDAO.listarIds(DisciplinaDAO.Ordem.ID),
+            this::buscarDisciplinas,
+            (disciplina, coluna) -> {
+                switch (coluna) {
+                    case 0: return disciplina.getId();
+                    case 1: return disciplina.getNomeDisciplina();
+                    case 2: return disciplina.getCodigo();
+                    case 3: return disciplina.getCargaHoraria();
+                    case 4: return disciplina.getSemestre();
+                    default: return nomesProfessores.getOrDefault(disciplina.getProfessorId(), "Professor não encontrado");
+                }
+            });
+
+        tableModel.setTarefas(tarefas);
+
+        // Cada gravação, desta tela ou de outra, inclui, atualiza ou remove só a sua linha
+        ouvinteDisciplinas = tableModel::aplicar;
+        disciplinaDAO.adicionarOuvinte(ouvinteDisciplinas);
+        // O nome do professor aparece nas linhas: quando muda, só as linhas das disciplinas
+        // dele são buscadas de novo
+        ouvinteProfessores = alteracao -> tableModel.atualizarLinhas(alteracao, Disciplina::getProfessorId);
+        professorDAO.adicionarOuvinte(ouvinteProfessores);
 
         table = new JTable(tableModel);
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -151,50 +190,55 @@ public class DisciplinaFrame extends JFrame {
         panel.add(btnEditar);
         panel.add(btnExcluir);
         panel.add(btnLimpar);
+        panel.add(progresso);
+        tarefas.desabilitarAoGravar(btnSalvar, btnEditar, btnExcluir);
 
         return panel;
     }
 
     private void carregarComboBoxProfessores() {
-        cbProfessor.removeAllItems();
-        List<Professor> professores = professorDAO.listarTodos();
-        for (Professor professor : professores) {
-            cbProfessor.addItem(professor);
+        // A lista entra no combo de uma vez, com um único evento
+        tarefas.carregar("professores", professorDAO::listarTodos,
+            professores -> cbProfessor.setModel(new DefaultComboBoxModel<>(professores.toArray(new Professor[0]))));
+    }
+
+    // Busca um bloco de disciplinas junto com o nome dos professores delas, para que a
+    // coluna Professor não consulte o DAO a cada vez que a célula é pintada
+    private List<Disciplina> buscarDisciplinas(int[] ids) {
+        List<Disciplina> disciplinas = disciplinaDAO.buscarPorIds(ids);
+        int[] idsProfessores = disciplinas.stream()
+            .filter(Objects::nonNull)
+            .mapToInt(Disciplina::getProfessorId)
+            .distinct()
+            .toArray();
+        List<Professor> professores = professorDAO.buscarPorIds(idsProfessores);
+        for (int i = 0; i < idsProfessores.length; i++) {
+            Professor professor = professores.get(i);
+            if (professor != null) {
+                nomesProfessores.put(idsProfessores[i], professor.getNome());
+            } else {
+                nomesProfessores.remove(idsProfessores[i]);
+            }
         }
+        return disciplinas;
     }
 
     private void carregarTabela() {
-        tableModel.setRowCount(0);
-        List<Disciplina> disciplinas = disciplinaDAO.listarTodos();
-
-        for (Disciplina disciplina : disciplinas) {
-            Professor professor = professorDAO.buscarPorId(disciplina.getProfessorId());
-            String nomeProfessor = professor != null ? professor.getNome() : "Professor não encontrado";
-            
-            Object[] row = {
-                disciplina.getId(),
-                disciplina.getNomeDisciplina(),
-                disciplina.getCodigo(),
-                disciplina.getCargaHoraria(),
-                disciplina.getSemestre(),
-                nomeProfessor
-            };
-            tableModel.addRow(row);
-        }
+        tableModel.recarregar();
     }
 
     private void preencherFormulario() {
         int selectedRow = table.getSelectedRow();
         if (selectedRow >= 0) {
-            disciplinaSelecionadaId = (Integer) tableModel.getValueAt(selectedRow, 0);
-            txtNome.setText((String) tableModel.getValueAt(selectedRow, 1));
-            txtCodigo.setText((String) tableModel.getValueAt(selectedRow, 2));
-            txtCargaHoraria.setText(tableModel.getValueAt(selectedRow, 3).toString());
-            txtSemestre.setText((String) tableModel.getValueAt(selectedRow, 4));
-            
-            // Selecionar o professor no combo box
-            Disciplina disciplina = disciplinaDAO.buscarPorId(disciplinaSelecionadaId);
+            Disciplina disciplina = tableModel.getLinha(selectedRow);
             if (disciplina != null) {
+                disciplinaSelecionadaId = disciplina.getId();
+                txtNome.setText(disciplina.getNomeDisciplina());
+                txtCodigo.setText(disciplina.getCodigo());
+                txtCargaHoraria.setText(String.valueOf(disciplina.getCargaHoraria()));
+                txtSemestre.setText(disciplina.getSemestre());
+
+                // Selecionar o professor no combo box
                 for (int i = 0; i < cbProfessor.getItemCount(); i++) {
                     Professor professor = cbProfessor.getItemAt(i);
                     if (professor.getId() == disciplina.getProfessorId()) {
@@ -208,58 +252,52 @@ public class DisciplinaFrame extends JFrame {
 
     private void salvarDisciplina() {
         if (validarCampos()) {
-            try {
-                Professor professorSelecionado = (Professor) cbProfessor.getSelectedItem();
-                
-                Disciplina disciplina = new Disciplina(
-                    txtNome.getText().trim(),
-                    txtCodigo.getText().trim(),
-                    Integer.parseInt(txtCargaHoraria.getText().trim()),
-                    professorSelecionado.getId(),
-                    txtSemestre.getText().trim()
-                );
+            Professor professorSelecionado = (Professor) cbProfessor.getSelectedItem();
+
+            Disciplina disciplina = new Disciplina(
+                txtNome.getText().trim(),
+                txtCodigo.getText().trim(),
+                Integer.parseInt(txtCargaHoraria.getText().trim()),
+                professorSelecionado.getId(),
+                txtSemestre.getText().trim()
+            );
 
+            boolean novo = disciplinaSelecionadaId == 0;
+            tarefas.gravar(() -> {
                 // Verificar se código já existe (apenas para novas disciplinas)
-                if (disciplinaSelecionadaId == 0 && disciplinaDAO.existeCodigo(disciplina.getCodigo())) {
+                if (novo && disciplinaDAO.existeCodigo(disciplina.getCodigo())) {
+                    return false;
+                }
+                disciplinaDAO.salvar(disciplina);
+                return true;
+            }, salvo -> {
+                if (!salvo) {
                     JOptionPane.showMessageDialog(this, "Código da disciplina já existe!");
                     return;
                 }
-
-                disciplinaDAO.salvar(disciplina);
-                carregarTabela();
                 limparFormulario();
                 JOptionPane.showMessageDialog(this, "Disciplina salva com sucesso!");
-            } catch (NumberFormatException e) {
-                JOptionPane.showMessageDialog(this, "Carga horária deve ser um número válido!");
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, "Erro ao salvar disciplina: " + e.getMessage());
-            }
+            }, e -> JOptionPane.showMessageDialog(this, "Erro ao salvar disciplina: " + e.getMessage()));
         }
     }
 
     private void editarDisciplina() {
         if (disciplinaSelecionadaId > 0 && validarCampos()) {
-            try {
-                Professor professorSelecionado = (Professor) cbProfessor.getSelectedItem();
-                
-                Disciplina disciplina = new Disciplina(
-                    disciplinaSelecionadaId,
-                    txtNome.getText().trim(),
-                    txtCodigo.getText().trim(),
-                    Integer.parseInt(txtCargaHoraria.getText().trim()),
-                    professorSelecionado.getId(),
-                    txtSemestre.getText().trim()
-                );
+            Professor professorSelecionado = (Professor) cbProfessor.getSelectedItem();
+
+            Disciplina disciplina = new Disciplina(
+                disciplinaSelecionadaId,
+                txtNome.getText().trim(),
+                txtCodigo.getText().trim(),
+                Integer.parseInt(txtCargaHoraria.getText().trim()),
+                professorSelecionado.getId(),
+                txtSemestre.getText().trim()
+            );
 
-                disciplinaDAO.salvar(disciplina);
-                carregarTabela();
+            tarefas.gravar(() -> disciplinaDAO.salvar(disciplina), () -> {
                 limparFormulario();
                 JOptionPane.showMessageDialog(this, "Disciplina editada com sucesso!");
-            } catch (NumberFormatException e) {
-                JOptionPane.showMessageDialog(this, "Carga horária deve ser um número válido!");
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, "Erro ao editar disciplina: " + e.getMessage());
-            }
+            }, e -> JOptionPane.showMessageDialog(this, "Erro ao editar disciplina: " + e.getMessage()));
         } else {
             JOptionPane.showMessageDialog(this, "Selecione uma disciplina para editar!");
         }
@@ -275,14 +313,11 @@ public class DisciplinaFrame extends JFrame {
             );
 
             if (resposta == JOptionPane.YES_OPTION) {
-                try {
-                    disciplinaDAO.excluir(disciplinaSelecionadaId);
-                    carregarTabela();
+                int id = disciplinaSelecionadaId;
+                tarefas.gravar(() -> disciplinaDAO.excluir(id), () -> {
                     limparFormulario();
                     JOptionPane.showMessageDialog(this, "Disciplina excluída com sucesso!");
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(this, "Erro ao excluir disciplina: " + e.getMessage());
-                }
+                }, e -> JOptionPane.showMessageDialog(this, "Erro ao excluir disciplina: " + e.getMessage()));
             }
         } else {
             JOptionPane.showMessageDialog(this, "Selecione uma disciplina para excluir!");
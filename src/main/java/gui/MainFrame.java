@@ -1,13 +1,18 @@
 package gui;
 
+import dao.ContextoDados;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
 public class MainFrame extends JFrame {
+    // DAOs compartilhados por todas as telas abertas a partir daqui
+    private final ContextoDados contexto;
     
-    public MainFrame() {
+    public MainFrame(ContextoDados contexto) {
+        this.contexto = contexto;
         initializeComponents();
     }
     
@@ -58,10 +63,10 @@ public class MainFrame extends JFrame {
         buttonPanel.add(btnMatriculas);
         
         // Adicionar listeners
-        btnAlunos.addActionListener(e -> new AlunoFrame().setVisible(true));
-        btnProfessores.addActionListener(e -> new ProfessorFrame().setVisible(true));
-        btnDisciplinas.addActionListener(e -> new DisciplinaFrame().setVisible(true));
-        btnMatriculas.addActionListener(e -> new MatriculaFrame().setVisible(true));
+        btnAlunos.addActionListener(e -> new AlunoFrame(contexto).setVisible(true));
+        btnProfessores.addActionListener(e -> new ProfessorFrame(contexto).setVisible(true));
+        btnDisciplinas.addActionListener(e -> new DisciplinaFrame(contexto).setVisible(true));
+        btnMatriculas.addActionListener(e -> new MatriculaFrame(contexto).setVisible(true));
         
         mainPanel.add(welcomePanel, BorderLayout.NORTH);
         mainPanel.add(buttonPanel, BorderLayout.CENTER);
@@ -105,10 +110,10 @@ public class MainFrame extends JFrame {
         JMenuItem itemDisciplinas = new JMenuItem("Disciplinas");
         JMenuItem itemMatriculas = new JMenuItem("Matrículas");
         
-        itemAlunos.addActionListener(e -> new AlunoFrame().setVisible(true));
-        itemProfessores.addActionListener(e -> new ProfessorFrame().setVisible(true));
-        itemDisciplinas.addActionListener(e -> new DisciplinaFrame().setVisible(true));
-        itemMatriculas.addActionListener(e -> new MatriculaFrame().setVisible(true));
+        itemAlunos.addActionListener(e -> new AlunoFrame(contexto).setVisible(true));
+        itemProfessores.addActionListener(e -> new ProfessorFrame(contexto).setVisible(true));
+        itemDisciplinas.addActionListener(e -> new DisciplinaFrame(contexto).setVisible(true));
+        itemMatriculas.addActionListener(e -> new MatriculaFrame(contexto).setVisible(true));
         
         menuGerenciar.add(itemAlunos);
         menuGerenciar.add(itemProfessores);
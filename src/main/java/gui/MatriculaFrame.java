@@ -2,50 +2,76 @@ package gui;
 
 import classes.Aluno;
 import classes.Disciplina;
+import classes.FormatoData;
+import classes.LinhaMatricula;
 import classes.Matricula;
 import classes.Professor;
+import dao.Alteracao;
 import dao.AlunoDAO;
+import dao.ConsultaMatriculas;
+import dao.ContextoDados;
 import dao.DisciplinaDAO;
 import dao.MatriculaDAO;
 import dao.ProfessorDAO;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.function.Consumer;
 
 public class MatriculaFrame extends JFrame {
     private MatriculaDAO matriculaDAO;
     private AlunoDAO alunoDAO;
     private DisciplinaDAO disciplinaDAO;
     private ProfessorDAO professorDAO;
+    private ConsultaMatriculas consultaMatriculas;
     private JTable table;
-    private DefaultTableModel tableModel;
+    private ModeloTabelaSobDemanda<LinhaMatricula> tableModel;
     private JComboBox<Aluno> cbAluno;
     private JComboBox<Disciplina> cbDisciplina;
+    private ModeloComboBusca<Aluno> modeloAlunos;
+    private ModeloComboBusca<Disciplina> modeloDisciplinas;
     private JComboBox<String> cbStatus;
     private JTextField txtDataMatricula;
     private JButton btnSalvar, btnEditar, btnExcluir, btnLimpar;
+    private JProgressBar progresso;
+    private TarefasEmSegundoPlano tarefas;
+    private Consumer<Alteracao<Matricula>> ouvinteMatriculas;
+    private Consumer<Alteracao<Aluno>> ouvinteAlunos;
+    private Consumer<Alteracao<Disciplina>> ouvinteDisciplinas;
+    private Consumer<Alteracao<Professor>> ouvinteProfessores;
     private int matriculaSelecionadaId = 0;
 
-    public MatriculaFrame() {
-        matriculaDAO = new MatriculaDAO();
-        alunoDAO = new AlunoDAO();
-        disciplinaDAO = new DisciplinaDAO();
-        professorDAO = new ProfessorDAO();
+    public MatriculaFrame(ContextoDados contexto) {
+        matriculaDAO = contexto.getMatriculaDAO();
+        alunoDAO = contexto.getAlunoDAO();
+        disciplinaDAO = contexto.getDisciplinaDAO();
+        professorDAO = contexto.getProfessorDAO();
+        consultaMatriculas = contexto.getConsultaMatriculas();
         initializeComponents();
         carregarComboBoxes();
         carregarTabela();
     }
 
+    @Override
+    public void dispose() {
+        matriculaDAO.removerOuvinte(ouvinteMatriculas);
+        alunoDAO.removerOuvinte(ouvinteAlunos);
+        disciplinaDAO.removerOuvinte(ouvinteDisciplinas);
+        professorDAO.removerOuvinte(ouvinteProfessores);
+        super.dispose();
+    }
+
     private void initializeComponents() {
         setTitle("Gerenciar Matrículas");
         setSize(1000, 600);
         setLocationRelativeTo(null);
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
+        // Leituras e gravações rodam fora da EDT; a barra aparece enquanto houver alguma
+        progresso = new JProgressBar();
+        tarefas = new TarefasEmSegundoPlano(progresso);
+
         // Painel principal
         JPanel mainPanel = new JPanel(new BorderLayout());
 
@@ -87,6 +113,13 @@ public class MatriculaFrame extends JFrame {
                 return this;
             }
         });
+        // O combo mostra só os alunos encontrados pelo texto digitado, não a lista inteira
+        modeloAlunos = new ModeloComboBusca<>(Aluno.class,
+            (texto, limite) -> texto.isBlank()
+                ? alunoDAO.listar(AlunoDAO.Ordem.NOME, null, limite).getItens()
+                : alunoDAO.buscarPorTexto(texto, limite),
+            alunoDAO::buscarPorId, Aluno::toDisplayString);
+        modeloAlunos.ligar(cbAluno, tarefas);
         panel.add(cbAluno, gbc);
 
         // Disciplina
@@ -104,6 +137,12 @@ public class MatriculaFrame extends JFrame {
                 return this;
             }
         });
+        modeloDisciplinas = new ModeloComboBusca<>(Disciplina.class,
+            (texto, limite) -> texto.isBlank()
+                ? disciplinaDAO.listar(DisciplinaDAO.Ordem.NOME, null, limite).getItens()
+                : disciplinaDAO.buscarPorTexto(texto, limite),
+            disciplinaDAO::buscarPorId, Disciplina::toDisplayString);
+        modeloDisciplinas.ligar(cbDisciplina, tarefas);
         panel.add(cbDisciplina, gbc);
 
         // Data da Matrícula
@@ -112,7 +151,7 @@ public class MatriculaFrame extends JFrame {
         gbc.gridx = 1;
         txtDataMatricula = new JTextField(20);
         // Preencher com data atual
-        txtDataMatricula.setText(LocalDate.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
+        txtDataMatricula.setText(FormatoData.formatar(LocalDate.now()));
         panel.add(txtDataMatricula, gbc);
 
         // Status
@@ -130,12 +169,33 @@ public class MatriculaFrame extends JFrame {
         panel.setBorder(BorderFactory.createTitledBorder("Lista de Matrículas"));
 
         String[] colunas = {"ID", "Aluno", "Disciplina", "Professor", "Data Matrícula", "Status"};
-        tableModel = new DefaultTableModel(colunas, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new ModeloTabelaSobDemanda<>(colunas,
+            () -> matriculaDAO.listarIds(MatriculaDAO.Ordem.ID),
+            consultaMatriculas::buscarLinhas,
+            (linha, coluna) -> {
+                switch (coluna) {
+                    case 0: return linha.getId();
+                    case 1: return linha.getNomeAluno();
+                    case 2: return linha.getNomeDisciplina();
+                    case 3: return linha.getNomeProfessor();
+                    case 4: return FormatoData.formatar(linha.getDataMatricula());
+                    default: return linha.getStatus();
+                }
+            });
+
+        tableModel.setTarefas(tarefas);
+
+        // Cada gravação, desta tela ou de outra, inclui, atualiza ou remove só a sua linha
+        ouvinteMatriculas = tableModel::aplicar;
+        matriculaDAO.adicionarOuvinte(ouvinteMatriculas);
+        // Os nomes de aluno, disciplina e professor aparecem nas linhas: quando um deles
+        // muda, só as linhas que o mostram são buscadas de novo
+        ouvinteAlunos = alteracao -> tableModel.atualizarLinhas(alteracao, LinhaMatricula::getAlunoId);
+        alunoDAO.adicionarOuvinte(ouvinteAlunos);
+        ouvinteDisciplinas = alteracao -> tableModel.atualizarLinhas(alteracao, LinhaMatricula::getDisciplinaId);
+        disciplinaDAO.adicionarOuvinte(ouvinteDisciplinas);
+        ouvinteProfessores = alteracao -> tableModel.atualizarLinhas(alteracao, LinhaMatricula::getProfessorId);
+        professorDAO.adicionarOuvinte(ouvinteProfessores);
 
         table = new JTable(tableModel);
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -168,140 +228,98 @@ public class MatriculaFrame extends JFrame {
         panel.add(btnEditar);
         panel.add(btnExcluir);
         panel.add(btnLimpar);
+        panel.add(progresso);
+        tarefas.desabilitarAoGravar(btnSalvar, btnEditar, btnExcluir);
 
         return panel;
     }
 
     private void carregarComboBoxes() {
-        // Carregar alunos
-        cbAluno.removeAllItems();
-        List<Aluno> alunos = alunoDAO.listarTodos();
-        for (Aluno aluno : alunos) {
-            cbAluno.addItem(aluno);
-        }
-
-        // Carregar disciplinas
-        cbDisciplina.removeAllItems();
-        List<Disciplina> disciplinas = disciplinaDAO.listarTodos();
-        for (Disciplina disciplina : disciplinas) {
-            cbDisciplina.addItem(disciplina);
-        }
+        // Só a primeira página em ordem de nome; o resto aparece conforme o usuário digita
+        modeloAlunos.pesquisar("");
+        modeloDisciplinas.pesquisar("");
     }
 
     private void carregarTabela() {
-        tableModel.setRowCount(0);
-        List<Matricula> matriculas = matriculaDAO.listarTodos();
-
-        for (Matricula matricula : matriculas) {
-            Aluno aluno = alunoDAO.buscarPorId(matricula.getAlunoId());
-            Disciplina disciplina = disciplinaDAO.buscarPorId(matricula.getDisciplinaId());
-            Professor professor = professorDAO.buscarPorId(disciplina != null ? disciplina.getProfessorId() : 0);
-
-            String nomeAluno = aluno != null ? aluno.getNome() : "Aluno não encontrado";
-            String nomeDisciplina = disciplina != null ? disciplina.getNomeDisciplina() : "Disciplina não encontrada";
-            String nomeProfessor = professor != null ? professor.getNome() : "Professor não encontrado";
-
-            Object[] row = {
-                matricula.getId(),
-                nomeAluno,
-                nomeDisciplina,
-                nomeProfessor,
-                matricula.getDataMatricula().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")),
-                matricula.getStatus()
-            };
-            tableModel.addRow(row);
-        }
+        tableModel.recarregar();
     }
 
     private void preencherFormulario() {
         int selectedRow = table.getSelectedRow();
         if (selectedRow >= 0) {
-            matriculaSelecionadaId = (Integer) tableModel.getValueAt(selectedRow, 0);
-            
-            Matricula matricula = matriculaDAO.buscarPorId(matriculaSelecionadaId);
-            if (matricula != null) {
-                // Selecionar aluno
-                for (int i = 0; i < cbAluno.getItemCount(); i++) {
-                    Aluno aluno = cbAluno.getItemAt(i);
-                    if (aluno.getId() == matricula.getAlunoId()) {
-                        cbAluno.setSelectedIndex(i);
-                        break;
-                    }
-                }
+            matriculaSelecionadaId = tableModel.getId(selectedRow);
 
-                // Selecionar disciplina
-                for (int i = 0; i < cbDisciplina.getItemCount(); i++) {
-                    Disciplina disciplina = cbDisciplina.getItemAt(i);
-                    if (disciplina.getId() == matricula.getDisciplinaId()) {
-                        cbDisciplina.setSelectedIndex(i);
-                        break;
-                    }
+            // Um novo clique descarta a busca anterior ainda em andamento
+            int id = matriculaSelecionadaId;
+            tarefas.carregar("formulario", () -> matriculaDAO.buscarPorId(id), matricula -> {
+                if (matricula == null || matricula.getId() != matriculaSelecionadaId) {
+                    return;
                 }
 
-                txtDataMatricula.setText(matricula.getDataMatricula().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
+                // Selecionar aluno e disciplina pelo id, mesmo fora dos itens mostrados
+                modeloAlunos.selecionarPorId(matricula.getAlunoId());
+                modeloDisciplinas.selecionarPorId(matricula.getDisciplinaId());
+
+                txtDataMatricula.setText(FormatoData.formatar(matricula.getDataMatricula()));
                 cbStatus.setSelectedItem(matricula.getStatus());
-            }
+            });
         }
     }
 
     private void salvarMatricula() {
         if (validarCampos()) {
-            try {
-                Aluno alunoSelecionado = (Aluno) cbAluno.getSelectedItem();
-                Disciplina disciplinaSelecionada = (Disciplina) cbDisciplina.getSelectedItem();
-                String status = (String) cbStatus.getSelectedItem();
+            Aluno alunoSelecionado = (Aluno) cbAluno.getSelectedItem();
+            Disciplina disciplinaSelecionada = (Disciplina) cbDisciplina.getSelectedItem();
+            String status = (String) cbStatus.getSelectedItem();
+
+            LocalDate dataMatricula = FormatoData.converter(txtDataMatricula.getText().trim());
 
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-                LocalDate dataMatricula = LocalDate.parse(txtDataMatricula.getText().trim(), formatter);
+            Matricula matricula = new Matricula(
+                alunoSelecionado.getId(),
+                disciplinaSelecionada.getId(),
+                dataMatricula,
+                status
+            );
 
+            boolean novo = matriculaSelecionadaId == 0;
+            tarefas.gravar(() -> {
                 // Verificar se já existe matrícula ativa para este aluno e disciplina
-                if (matriculaSelecionadaId == 0 && matriculaDAO.existeMatricula(alunoSelecionado.getId(), disciplinaSelecionada.getId())) {
+                if (novo && matriculaDAO.existeMatricula(alunoSelecionado.getId(), disciplinaSelecionada.getId())) {
+                    return false;
+                }
+                matriculaDAO.salvar(matricula);
+                return true;
+            }, salvo -> {
+                if (!salvo) {
                     JOptionPane.showMessageDialog(this, "Já existe uma matrícula ativa para este aluno nesta disciplina!");
                     return;
                 }
-
-                Matricula matricula = new Matricula(
-                    alunoSelecionado.getId(),
-                    disciplinaSelecionada.getId(),
-                    dataMatricula,
-                    status
-                );
-
-                matriculaDAO.salvar(matricula);
-                carregarTabela();
                 limparFormulario();
                 JOptionPane.showMessageDialog(this, "Matrícula salva com sucesso!");
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, "Erro ao salvar matrícula: " + e.getMessage());
-            }
+            }, e -> JOptionPane.showMessageDialog(this, "Erro ao salvar matrícula: " + e.getMessage()));
         }
     }
 
     private void editarMatricula() {
         if (matriculaSelecionadaId > 0 && validarCampos()) {
-            try {
-                Aluno alunoSelecionado = (Aluno) cbAluno.getSelectedItem();
-                Disciplina disciplinaSelecionada = (Disciplina) cbDisciplina.getSelectedItem();
-                String status = (String) cbStatus.getSelectedItem();
-
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-                LocalDate dataMatricula = LocalDate.parse(txtDataMatricula.getText().trim(), formatter);
-
-                Matricula matricula = new Matricula(
-                    matriculaSelecionadaId,
-                    alunoSelecionado.getId(),
-                    disciplinaSelecionada.getId(),
-                    dataMatricula,
-                    status
-                );
+            Aluno alunoSelecionado = (Aluno) cbAluno.getSelectedItem();
+            Disciplina disciplinaSelecionada = (Disciplina) cbDisciplina.getSelectedItem();
+            String status = (String) cbStatus.getSelectedItem();
+
+            LocalDate dataMatricula = FormatoData.converter(txtDataMatricula.getText().trim());
+
+            Matricula matricula = new Matricula(
+                matriculaSelecionadaId,
+                alunoSelecionado.getId(),
+                disciplinaSelecionada.getId(),
+                dataMatricula,
+                status
+            );
 
-                matriculaDAO.salvar(matricula);
-                carregarTabela();
+            tarefas.gravar(() -> matriculaDAO.salvar(matricula), () -> {
                 limparFormulario();
                 JOptionPane.showMessageDialog(this, "Matrícula editada com sucesso!");
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, "Erro ao editar matrícula: " + e.getMessage());
-            }
+            }, e -> JOptionPane.showMessageDialog(this, "Erro ao editar matrícula: " + e.getMessage()));
         } else {
             JOptionPane.showMessageDialog(this, "Selecione uma matrícula para editar!");
         }
@@ -317,14 +335,11 @@ public class MatriculaFrame extends JFrame {
             );
 
             if (resposta == JOptionPane.YES_OPTION) {
-                try {
-                    matriculaDAO.excluir(matriculaSelecionadaId);
-                    carregarTabela();
+                int id = matriculaSelecionadaId;
+                tarefas.gravar(() -> matriculaDAO.excluir(id), () -> {
                     limparFormulario();
                     JOptionPane.showMessageDialog(this, "Matrícula excluída com sucesso!");
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(this, "Erro ao excluir matrícula: " + e.getMessage());
-                }
+                }, e -> JOptionPane.showMessageDialog(this, "Erro ao excluir matrícula: " + e.getMessage()));
             }
         } else {
             JOptionPane.showMessageDialog(this, "Selecione uma matrícula para excluir!");
@@ -332,10 +347,10 @@ public class MatriculaFrame extends JFrame {
     }
 
     private void limparFormulario() {
-        cbAluno.setSelectedIndex(-1);
-        cbDisciplina.setSelectedIndex(-1);
+        modeloAlunos.limpar();
+        modeloDisciplinas.limpar();
         cbStatus.setSelectedIndex(0);
-        txtDataMatricula.setText(LocalDate.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
+        txtDataMatricula.setText(FormatoData.formatar(LocalDate.now()));
         matriculaSelecionadaId = 0;
         table.clearSelection();
     }
@@ -357,8 +372,7 @@ public class MatriculaFrame extends JFrame {
             return false;
         }
         try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-            LocalDate.parse(txtDataMatricula.getText().trim(), formatter);
+            FormatoData.converter(txtDataMatricula.getText().trim());
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Data da matrícula deve estar no formato dd/MM/yyyy!");
             txtDataMatricula.requestFocus();
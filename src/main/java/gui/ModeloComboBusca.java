@@ -0,0 +1,197 @@
+package gui;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.plaf.basic.BasicComboBoxEditor;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Modelo de combo com busca enquanto o usuário digita: o combo mostra só as entidades
+ * encontradas pelo índice de texto do DAO (no máximo LIMITE), em vez de receber todas.
+ * A seleção vinda de um registro é feita pelo id com selecionarPorId, sem percorrer os
+ * itens do combo.
+ *
+ * ligar(...) torna o combo editável: cada alteração no texto espera uma pausa na
+ * digitação e dispara a busca em segundo plano; a anterior ainda em andamento é descartada.
+ */
+public class ModeloComboBusca<T> extends AbstractListModel<T> implements ComboBoxModel<T> {
+    static final int LIMITE = 50;
+    private static final int PAUSA_DIGITACAO_MS = 200;
+
+    private final Class<T> tipo;
+    private final BiFunction<String, Integer, List<T>> buscar;
+    private final IntFunction<T> buscarPorId;
+    private final Function<T, String> descrever;
+    private List<T> itens = Collections.emptyList();
+    private T selecionado;
+
+    private JComboBox<T> combo;
+    private TarefasEmSegundoPlano tarefas;
+    private Editor editorBusca;
+
+    // buscar recebe o texto digitado (vazio para a lista inicial) e o limite de itens
+    public ModeloComboBusca(Class<T> tipo, BiFunction<String, Integer, List<T>> buscar,
+                            IntFunction<T> buscarPorId, Function<T, String> descrever) {
+        this.tipo = tipo;
+        this.buscar = buscar;
+        this.buscarPorId = buscarPorId;
+        this.descrever = descrever;
+    }
+
+    public void ligar(JComboBox<T> combo, TarefasEmSegundoPlano tarefas) {
+        this.combo = combo;
+        this.tarefas = tarefas;
+        this.editorBusca = new Editor();
+
+        Timer pausa = new Timer(PAUSA_DIGITACAO_MS, e -> pesquisar(editorBusca.getTexto()));
+        pausa.setRepeats(false);
+        editorBusca.getEditorComponent().getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                aoDigitar();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                aoDigitar();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+
+            private void aoDigitar() {
+                if (!editorBusca.ajustando) {
+                    // O texto não corresponde mais à seleção anterior; com o item do editor
+                    // já limpo, o aviso ao combo não apaga o que está sendo digitado
+                    editorBusca.item = null;
+                    if (selecionado != null) {
+                        selecionado = null;
+                        fireContentsChanged(ModeloComboBusca.this, -1, -1);
+                    }
+                    pausa.restart();
+                }
+            }
+        });
+
+        combo.setModel(this);
+        combo.setEditor(editorBusca);
+        combo.setEditable(true);
+    }
+
+    // Busca em segundo plano e troca os itens do combo de uma vez
+    public void pesquisar(String texto) {
+        tarefas.carregar("combo:" + tipo.getSimpleName(), () -> buscar.apply(texto, LIMITE), encontrados -> {
+            definirItens(encontrados);
+            if (combo.isShowing() && editorBusca.getEditorComponent().hasFocus()) {
+                // Fecha e abre de novo para o popup se ajustar à nova quantidade de itens
+                combo.hidePopup();
+                combo.showPopup();
+            }
+        });
+    }
+
+    void definirItens(List<T> novos) {
+        itens = novos;
+        fireContentsChanged(this, -1, -1);
+    }
+
+    // Seleciona a entidade com este id, esteja ou não entre os itens mostrados
+    public void selecionarPorId(int id) {
+        setSelectedItem(buscarPorId.apply(id));
+    }
+
+    // Remove a seleção e o texto digitado e volta à lista inicial
+    public void limpar() {
+        setSelectedItem(null);
+        if (editorBusca != null) {
+            editorBusca.item = null;
+            editorBusca.mostrar("");
+            pesquisar("");
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return itens.size();
+    }
+
+    @Override
+    public T getElementAt(int indice) {
+        return itens.get(indice);
+    }
+
+    @Override
+    public Object getSelectedItem() {
+        return selecionado;
+    }
+
+    // Aceita uma entidade ou, ao confirmar o texto digitado, o texto de um dos itens
+    @Override
+    public void setSelectedItem(Object item) {
+        T novo = null;
+        if (tipo.isInstance(item)) {
+            novo = tipo.cast(item);
+        } else if (item instanceof String) {
+            for (T candidato : itens) {
+                if (descrever.apply(candidato).equals(item)) {
+                    novo = candidato;
+                    break;
+                }
+            }
+        }
+        if (novo != selecionado) {
+            selecionado = novo;
+            fireContentsChanged(this, -1, -1);
+        }
+    }
+
+    // Mostra a descrição da entidade selecionada. Sem seleção, mantém o que o usuário está
+    // digitando (o combo reconfigura o editor a cada troca de itens)
+    private class Editor extends BasicComboBoxEditor {
+        boolean ajustando = false;
+        Object item;
+
+        @Override
+        public void setItem(Object novo) {
+            if (tipo.isInstance(novo)) {
+                item = novo;
+                mostrar(descrever.apply(tipo.cast(novo)));
+            } else if (novo == null && item != null) {
+                item = null;
+                mostrar("");
+            }
+        }
+
+        @Override
+        public Object getItem() {
+            if (item != null && getTexto().equals(descrever.apply(tipo.cast(item)))) {
+                return item;
+            }
+            return getTexto();
+        }
+
+        @Override
+        public JTextField getEditorComponent() {
+            return editor;
+        }
+
+        String getTexto() {
+            return editor.getText();
+        }
+
+        void mostrar(String texto) {
+            ajustando = true;
+            try {
+                editor.setText(texto);
+            } finally {
+                ajustando = false;
+            }
+        }
+    }
+}
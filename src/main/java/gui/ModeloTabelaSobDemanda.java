@@ -0,0 +1,291 @@
+package gui;
+
+import dao.Alteracao;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Modelo de tabela que guarda só os ids das linhas e busca as entidades sob demanda,
+ * em blocos, quando a JTable pede uma célula. Como a JTable só pinta as linhas visíveis,
+ * apenas os blocos em volta da área rolada ficam em memória; os demais são descartados
+ * (do menos usado para o mais usado) e buscados de novo no cache dos DAOs se voltarem à tela.
+ *
+ * Com setTarefas, os ids e os blocos são buscados em segundo plano: a linha fica vazia até
+ * o bloco chegar e então só as linhas dele são repintadas.
+ *
+ * Os ids devem vir em ordem crescente (Ordem.ID): assim aplicar(...) encontra a linha de
+ * uma alteração avisada pelo DAO por busca binária e inclui, atualiza ou remove só ela.
+ */
+public class ModeloTabelaSobDemanda<T> extends AbstractTableModel {
+    private static final int TAMANHO_BLOCO = 200;
+    private static final int BLOCOS_EM_MEMORIA = 8;
+
+    // Valor exibido em uma coluna de uma linha já buscada
+    public interface Colunas<T> {
+        Object valor(T linha, int coluna);
+    }
+
+    private final String[] colunas;
+    private final Supplier<int[]> listarIds;
+    private final Function<int[], List<T>> buscarPorIds;
+    private final Colunas<T> valores;
+    private TarefasEmSegundoPlano tarefas;
+    // Ids das linhas nas primeiras quantidade posições; sobra espaço no fim para inclusões
+    private int[] ids = new int[0];
+    private int quantidade = 0;
+    // Muda a cada recarga; blocos buscados para uma geração anterior são descartados
+    private int geracao = 0;
+    private final Set<Integer> pendentes = new HashSet<>();
+    private boolean carregandoIds = false;
+
+    // Blocos buscados, em ordem de acesso para descartar o menos usado
+    private final Map<Integer, List<T>> blocos = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> maisAntigo) {
+            return size() > BLOCOS_EM_MEMORIA;
+        }
+    };
+
+    public ModeloTabelaSobDemanda(String[] colunas, Supplier<int[]> listarIds,
+                                  Function<int[], List<T>> buscarPorIds, Colunas<T> valores) {
+        this.colunas = colunas;
+        this.listarIds = listarIds;
+        this.buscarPorIds = buscarPorIds;
+        this.valores = valores;
+    }
+
+    // Sem tarefas (como nos testes) as buscas são feitas na própria thread
+    public void setTarefas(TarefasEmSegundoPlano tarefas) {
+        this.tarefas = tarefas;
+    }
+
+    // Relê os ids e descarta os blocos já buscados
+    public void recarregar() {
+        if (tarefas == null) {
+            aplicarIds(listarIds.get());
+        } else {
+            carregandoIds = true;
+            tarefas.carregar("ids", listarIds::get, this::aplicarIds);
+        }
+    }
+
+    private void aplicarIds(int[] novos) {
+        carregandoIds = false;
+        ids = novos;
+        quantidade = novos.length;
+        geracao++;
+        blocos.clear();
+        pendentes.clear();
+        fireTableDataChanged();
+    }
+
+    // Aplica uma alteração avisada pelo DAO; pode ser chamado de qualquer thread
+    public void aplicar(Alteracao<?> alteracao) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> aplicar(alteracao));
+            return;
+        }
+        if (carregandoIds) {
+            // Os ids a caminho podem ter sido lidos antes desta alteração
+            recarregar();
+            return;
+        }
+        switch (alteracao.getTipo()) {
+            case INCLUSAO:
+                incluirLinha(alteracao.getId());
+                break;
+            case ALTERACAO:
+                atualizarLinha(alteracao.getId());
+                break;
+            case EXCLUSAO:
+                removerLinha(alteracao.getId());
+                break;
+            default:
+                recarregar();
+        }
+    }
+
+    // Linhas podem mostrar dados de outras entidades (nome do professor...). Para uma
+    // alteração de uma delas, referencia dá o id que cada linha mostra daquela entidade:
+    // só os blocos com alguma linha que a referencia são descartados e repintados, sem
+    // reler os ids. Uma RECARGA descarta todos. Pode ser chamado de qualquer thread
+    public void atualizarLinhas(Alteracao<?> alteracao, ToIntFunction<T> referencia) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> atualizarLinhas(alteracao, referencia));
+            return;
+        }
+        if (alteracao.getTipo() == Alteracao.Tipo.RECARGA) {
+            descartarBlocosDesde(0);
+            if (quantidade > 0) {
+                fireTableRowsUpdated(0, quantidade - 1);
+            }
+            return;
+        }
+
+        List<Integer> descartados = new ArrayList<>();
+        Iterator<Map.Entry<Integer, List<T>>> iterador = blocos.entrySet().iterator();
+        while (iterador.hasNext()) {
+            Map.Entry<Integer, List<T>> bloco = iterador.next();
+            for (T linha : bloco.getValue()) {
+                if (linha != null && referencia.applyAsInt(linha) == alteracao.getId()) {
+                    iterador.remove();
+                    descartados.add(bloco.getKey());
+                    break;
+                }
+            }
+        }
+        // Blocos a caminho podem ter sido lidos antes da alteração: são buscados de novo
+        if (!pendentes.isEmpty()) {
+            descartados.addAll(pendentes);
+            pendentes.clear();
+            geracao++;
+        }
+        for (int bloco : descartados) {
+            int inicio = bloco * TAMANHO_BLOCO;
+            int fim = Math.min(inicio + TAMANHO_BLOCO, quantidade) - 1;
+            if (fim >= inicio) {
+                fireTableRowsUpdated(inicio, fim);
+            }
+        }
+    }
+
+    private void incluirLinha(int id) {
+        int posicao = Arrays.binarySearch(ids, 0, quantidade, id);
+        if (posicao >= 0) {
+            atualizarLinha(id);
+            return;
+        }
+        // Ids novos costumam ser os maiores: a inclusão vai para o fim, sem deslocar nada
+        posicao = -posicao - 1;
+        if (quantidade == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(16, quantidade * 2));
+        }
+        System.arraycopy(ids, posicao, ids, posicao + 1, quantidade - posicao);
+        ids[posicao] = id;
+        quantidade++;
+        descartarBlocosDesde(posicao / TAMANHO_BLOCO);
+        fireTableRowsInserted(posicao, posicao);
+    }
+
+    private void removerLinha(int id) {
+        int posicao = Arrays.binarySearch(ids, 0, quantidade, id);
+        if (posicao < 0) {
+            return;
+        }
+        System.arraycopy(ids, posicao + 1, ids, posicao, quantidade - posicao - 1);
+        quantidade--;
+        descartarBlocosDesde(posicao / TAMANHO_BLOCO);
+        fireTableRowsDeleted(posicao, posicao);
+    }
+
+    // Busca de novo só a linha, se o bloco dela estiver em memória
+    private void atualizarLinha(int id) {
+        int posicao = Arrays.binarySearch(ids, 0, quantidade, id);
+        if (posicao < 0 || !blocos.containsKey(posicao / TAMANHO_BLOCO)) {
+            return;
+        }
+        if (tarefas == null) {
+            substituirLinha(posicao, buscarPorIds.apply(new int[]{id}).get(0));
+            return;
+        }
+        tarefas.carregar("linha:" + id, () -> buscarPorIds.apply(new int[]{id}).get(0), linha -> {
+            // Inclusões e exclusões feitas enquanto isso podem ter deslocado a linha; se o
+            // bloco dela foi descartado, a busca do bloco já traz a versão nova
+            int atual = Arrays.binarySearch(ids, 0, quantidade, id);
+            if (atual >= 0) {
+                substituirLinha(atual, linha);
+            }
+        });
+    }
+
+    private void substituirLinha(int posicao, T linha) {
+        List<T> bloco = blocos.get(posicao / TAMANHO_BLOCO);
+        if (bloco != null) {
+            bloco.set(posicao % TAMANHO_BLOCO, linha);
+            fireTableRowsUpdated(posicao, posicao);
+        }
+    }
+
+    // Inclusões e exclusões deslocam as linhas seguintes: os blocos a partir da posição
+    // deixam de valer, e buscas em andamento são ignoradas e refeitas quando pintadas
+    private void descartarBlocosDesde(int bloco) {
+        blocos.keySet().removeIf(b -> b >= bloco);
+        geracao++;
+        pendentes.clear();
+    }
+
+    public int getId(int linha) {
+        return ids[linha];
+    }
+
+    // Entidade da linha, buscando o bloco inteiro se ainda não estiver em memória;
+    // null se foi excluída depois da última recarga ou se o bloco ainda está a caminho
+    public T getLinha(int linha) {
+        int bloco = linha / TAMANHO_BLOCO;
+        List<T> linhas = blocos.get(bloco);
+        if (linhas == null) {
+            if (tarefas != null) {
+                buscarEmSegundoPlano(bloco);
+                return null;
+            }
+            linhas = new ArrayList<>(buscarPorIds.apply(trecho(bloco)));
+            blocos.put(bloco, linhas);
+        }
+        return linhas.get(linha % TAMANHO_BLOCO);
+    }
+
+    private void buscarEmSegundoPlano(int bloco) {
+        if (!pendentes.add(bloco)) {
+            return;
+        }
+        int[] trecho = trecho(bloco);
+        int geracaoDaBusca = geracao;
+        tarefas.carregar("bloco:" + bloco, () -> buscarPorIds.apply(trecho), linhas -> {
+            if (geracaoDaBusca == geracao) {
+                pendentes.remove(bloco);
+                blocos.put(bloco, new ArrayList<>(linhas));
+                int inicio = bloco * TAMANHO_BLOCO;
+                fireTableRowsUpdated(inicio, inicio + linhas.size() - 1);
+            }
+        });
+    }
+
+    // Ids das linhas do bloco
+    private int[] trecho(int bloco) {
+        int inicio = bloco * TAMANHO_BLOCO;
+        return Arrays.copyOfRange(ids, inicio, Math.min(inicio + TAMANHO_BLOCO, quantidade));
+    }
+
+    @Override
+    public int getRowCount() {
+        return quantidade;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return colunas.length;
+    }
+
+    @Override
+    public String getColumnName(int coluna) {
+        return colunas[coluna];
+    }
+
+    @Override
+    public Object getValueAt(int linha, int coluna) {
+        T entidade = getLinha(linha);
+        return entidade != null ? valores.valor(entidade, coluna) : null;
+    }
+}
@@ -1,33 +1,47 @@
 package gui;
 
 import classes.Professor;
+import dao.Alteracao;
+import dao.ContextoDados;
 import dao.ProfessorDAO;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.List;
+import java.util.function.Consumer;
 
 public class ProfessorFrame extends JFrame {
     private ProfessorDAO professorDAO;
     private JTable table;
-    private DefaultTableModel tableModel;
+    private ModeloTabelaSobDemanda<Professor> tableModel;
     private JTextField txtNome, txtIdentificador, txtEmail, txtDepartamento;
     private JButton btnSalvar, btnEditar, btnExcluir, btnLimpar;
+    private JProgressBar progresso;
+    private TarefasEmSegundoPlano tarefas;
+    private Consumer<Alteracao<Professor>> ouvinteProfessores;
     private int professorSelecionadoId = 0;
 
-    public ProfessorFrame() {
-        professorDAO = new ProfessorDAO();
+    public ProfessorFrame(ContextoDados contexto) {
+        professorDAO = contexto.getProfessorDAO();
         initializeComponents();
         carregarTabela();
     }
 
+    @Override
+    public void dispose() {
+        professorDAO.removerOuvinte(ouvinteProfessores);
+        super.dispose();
+    }
+
     private void initializeComponents() {
         setTitle("Gerenciar Professores");
         setSize(800, 600);
         setLocationRelativeTo(null);
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
+        // Leituras e gravações rodam fora da EDT; a barra aparece enquanto houver alguma
+        progresso = new JProgressBar();
+        tarefas = new TarefasEmSegundoPlano(progresso);
+
         // Painel principal
         JPanel mainPanel = new JPanel(new BorderLayout());
 
@@ -90,12 +104,24 @@ public class ProfessorFrame extends JFrame {
         panel.setBorder(BorderFactory.createTitledBorder("Lista de Professores"));
 
         String[] colunas = {"ID", "Nome", "Identificador", "Email", "Departamento"};
-        tableModel = new DefaultTableModel(colunas, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new ModeloTabelaSobDemanda<>(colunas,
+            () -> professorDAO.listarIds(ProfessorDAO.Ordem.ID),
+            professorDAO::buscarPorIds,
+            (professor, coluna) -> {
+                switch (coluna) {
+                    case 0: return professor.getId();
+                    case 1: return professor.getNome();
+                    case 2: return professor.getIdentificador();
+                    case 3: return professor.getEmail();
+                    default: return professor.getDepartamento();
+                }
+            });
+
+        tableModel.setTarefas(tarefas);
+
+        // Cada gravação, desta tela ou de outra, inclui, atualiza ou remove só a sua linha
+        ouvinteProfessores = tableModel::aplicar;
+        professorDAO.adicionarOuvinte(ouvinteProfessores);
 
         table = new JTable(tableModel);
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -128,81 +154,72 @@ public class ProfessorFrame extends JFrame {
         panel.add(btnEditar);
         panel.add(btnExcluir);
         panel.add(btnLimpar);
+        panel.add(progresso);
+        tarefas.desabilitarAoGravar(btnSalvar, btnEditar, btnExcluir);
 
         return panel;
     }
 
     private void carregarTabela() {
-        tableModel.setRowCount(0);
-        List<Professor> professores = professorDAO.listarTodos();
-
-        for (Professor professor : professores) {
-            Object[] row = {
-                professor.getId(),
-                professor.getNome(),
-                professor.getIdentificador(),
-                professor.getEmail(),
-                professor.getDepartamento()
-            };
-            tableModel.addRow(row);
-        }
+        tableModel.recarregar();
     }
 
     private void preencherFormulario() {
         int selectedRow = table.getSelectedRow();
         if (selectedRow >= 0) {
-            professorSelecionadoId = (Integer) tableModel.getValueAt(selectedRow, 0);
-            txtNome.setText((String) tableModel.getValueAt(selectedRow, 1));
-            txtIdentificador.setText((String) tableModel.getValueAt(selectedRow, 2));
-            txtEmail.setText((String) tableModel.getValueAt(selectedRow, 3));
-            txtDepartamento.setText((String) tableModel.getValueAt(selectedRow, 4));
+            Professor professor = tableModel.getLinha(selectedRow);
+            if (professor != null) {
+                professorSelecionadoId = professor.getId();
+                txtNome.setText(professor.getNome());
+                txtIdentificador.setText(professor.getIdentificador());
+                txtEmail.setText(professor.getEmail());
+                txtDepartamento.setText(professor.getDepartamento());
+            }
         }
     }
 
     private void salvarProfessor() {
         if (validarCampos()) {
-            try {
-                Professor professor = new Professor(
-                    txtNome.getText().trim(),
-                    txtIdentificador.getText().trim(),
-                    txtEmail.getText().trim(),
-                    txtDepartamento.getText().trim()
-                );
+            Professor professor = new Professor(
+                txtNome.getText().trim(),
+                txtIdentificador.getText().trim(),
+                txtEmail.getText().trim(),
+                txtDepartamento.getText().trim()
+            );
 
+            boolean novo = professorSelecionadoId == 0;
+            tarefas.gravar(() -> {
                 // Verificar se identificador já existe (apenas para novos professores)
-                if (professorSelecionadoId == 0 && professorDAO.existeIdentificador(professor.getIdentificador())) {
+                if (novo && professorDAO.existeIdentificador(professor.getIdentificador())) {
+                    return false;
+                }
+                professorDAO.salvar(professor);
+                return true;
+            }, salvo -> {
+                if (!salvo) {
                     JOptionPane.showMessageDialog(this, "Identificador já existe!");
                     return;
                 }
-
-                professorDAO.salvar(professor);
-                carregarTabela();
                 limparFormulario();
                 JOptionPane.showMessageDialog(this, "Professor salvo com sucesso!");
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, "Erro ao salvar professor: " + e.getMessage());
-            }
+            }, e -> JOptionPane.showMessageDialog(this, "Erro ao salvar professor: " + e.getMessage()));
         }
     }
 
     private void editarProfessor() {
         if (professorSelecionadoId > 0 && validarCampos()) {
-            try {
-                Professor professor = new Professor(
-                    professorSelecionadoId,
-                    txtNome.getText().trim(),
-                    txtIdentificador.getText().trim(),
-                    txtEmail.getText().trim(),
-                    txtDepartamento.getText().trim()
-                );
+            Professor professor = new Professor(
+                professorSelecionadoId,
+                txtNome.getText().trim(),
+                txtIdentificador.getText().trim(),
+                txtEmail.getText().trim(),
+                txtDepartamento.getText().trim()
+            );
 
-                professorDAO.salvar(professor);
-                carregarTabela();
+            tarefas.gravar(() -> professorDAO.salvar(professor), () -> {
                 limparFormulario();
                 JOptionPane.showMessageDialog(this, "Professor editado com sucesso!");
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, "Erro ao editar professor: " + e.getMessage());
-            }
+            }, e -> JOptionPane.showMessageDialog(this, "Erro ao editar professor: " + e.getMessage()));
         } else {
             JOptionPane.showMessageDialog(this, "Selecione um professor para editar!");
         }
@@ -218,14 +235,11 @@ public class ProfessorFrame extends JFrame {
             );
 
             if (resposta == JOptionPane.YES_OPTION) {
-                try {
-                    professorDAO.excluir(professorSelecionadoId);
-                    carregarTabela();
+                int id = professorSelecionadoId;
+                tarefas.gravar(() -> professorDAO.excluir(id), () -> {
                     limparFormulario();
                     JOptionPane.showMessageDialog(this, "Professor excluído com sucesso!");
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(this, "Erro ao excluir professor: " + e.getMessage());
-                }
+                }, e -> JOptionPane.showMessageDialog(this, "Erro ao excluir professor: " + e.getMessage()));
             }
         } else {
             JOptionPane.showMessageDialog(this, "Selecione um professor para excluir!");
@@ -0,0 +1,142 @@
+package gui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Executa as chamadas aos DAOs fora da thread de eventos do Swing (EDT), com SwingWorker,
+ * e entrega o resultado de volta na EDT. Enquanto houver tarefas em andamento a barra de
+ * progresso fica visível e os componentes de gravação ficam desabilitados.
+ *
+ * Carregamentos têm uma chave: um novo carregamento com a mesma chave (o usuário clicou de
+ * novo) descarta o anterior, cujo resultado deixa de ser entregue. A tarefa descartada não
+ * é interrompida, só ignorada, porque interromper uma thread no meio de uma operação de
+ * FileChannel fecha o canal e com ele o bloqueio do arquivo. Gravações nunca são descartadas.
+ *
+ * Todos os métodos devem ser chamados na EDT.
+ */
+public class TarefasEmSegundoPlano {
+    // Gravação sem resultado, como salvar ou excluir
+    public interface Gravacao {
+        void executar() throws Exception;
+    }
+
+    private final JProgressBar progresso;
+    private final Map<String, SwingWorker<?, ?>> carregamentos = new HashMap<>();
+    private final List<Component> desabilitadosAoGravar = new ArrayList<>();
+    private int emCarregamento = 0;
+    private int emGravacao = 0;
+
+    public TarefasEmSegundoPlano(JProgressBar progresso) {
+        this.progresso = progresso;
+        progresso.setStringPainted(true);
+        progresso.setVisible(false);
+    }
+
+    // Componentes (botões de salvar, excluir...) desabilitados enquanto uma gravação roda
+    public void desabilitarAoGravar(Component... componentes) {
+        desabilitadosAoGravar.addAll(List.of(componentes));
+    }
+
+    // Carrega em segundo plano, descartando o carregamento anterior com a mesma chave.
+    // Falhas são só registradas, como as falhas de leitura dos DAOs
+    public <R> void carregar(String chave, Callable<R> tarefa, Consumer<R> aoConcluir) {
+        SwingWorker<?, ?> anterior = carregamentos.remove(chave);
+        if (anterior != null) {
+            anterior.cancel(false);
+        }
+        emCarregamento++;
+        SwingWorker<R, Void> worker = new Trabalhador<R>(tarefa, aoConcluir, Exception::printStackTrace) {
+            @Override
+            void aoTerminar() {
+                emCarregamento--;
+                if (carregamentos.get(chave) == this) {
+                    carregamentos.remove(chave);
+                }
+            }
+        };
+        carregamentos.put(chave, worker);
+        atualizarProgresso();
+        worker.execute();
+    }
+
+    // Grava em segundo plano; aoFalhar recebe a exceção lançada pelo DAO
+    public <R> void gravar(Callable<R> tarefa, Consumer<R> aoConcluir, Consumer<Exception> aoFalhar) {
+        emGravacao++;
+        new Trabalhador<R>(tarefa, aoConcluir, aoFalhar) {
+            @Override
+            void aoTerminar() {
+                emGravacao--;
+            }
+        }.execute();
+        atualizarProgresso();
+    }
+
+    public void gravar(Gravacao tarefa, Runnable aoConcluir, Consumer<Exception> aoFalhar) {
+        gravar(() -> {
+            tarefa.executar();
+            return null;
+        }, resultado -> aoConcluir.run(), aoFalhar);
+    }
+
+    public boolean ocupado() {
+        return emCarregamento + emGravacao > 0;
+    }
+
+    private void atualizarProgresso() {
+        progresso.setVisible(ocupado());
+        progresso.setIndeterminate(ocupado());
+        progresso.setString(emGravacao > 0 ? "Gravando..." : "Carregando...");
+        for (Component componente : desabilitadosAoGravar) {
+            componente.setEnabled(emGravacao == 0);
+        }
+    }
+
+    private abstract class Trabalhador<R> extends SwingWorker<R, Void> {
+        private final Callable<R> tarefa;
+        private final Consumer<R> aoConcluir;
+        private final Consumer<Exception> aoFalhar;
+
+        Trabalhador(Callable<R> tarefa, Consumer<R> aoConcluir, Consumer<Exception> aoFalhar) {
+            this.tarefa = tarefa;
+            this.aoConcluir = aoConcluir;
+            this.aoFalhar = aoFalhar;
+        }
+
+        // Contabilidade de quem criou a tarefa, na EDT, antes de entregar o resultado
+        abstract void aoTerminar();
+
+        @Override
+        protected R doInBackground() throws Exception {
+            return tarefa.call();
+        }
+
+        @Override
+        protected void done() {
+            aoTerminar();
+            atualizarProgresso();
+            if (isCancelled()) {
+                return;
+            }
+            R resultado;
+            try {
+                resultado = get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                Throwable causa = e.getCause();
+                aoFalhar.accept(causa instanceof Exception ? (Exception) causa : e);
+                return;
+            }
+            aoConcluir.accept(resultado);
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package importacao;
+
+import classes.Aluno;
+import classes.Disciplina;
+import classes.FormatoData;
+import classes.Matricula;
+import classes.Professor;
+import dao.AlunoDAO;
+import dao.ContextoDados;
+import dao.DisciplinaDAO;
+import dao.MatriculaDAO;
+import dao.ProfessorDAO;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Importação de alunos, professores, disciplinas e matrículas a partir de CSV, sem
+ * interface gráfica.
+ *
+ * O arquivo é lido em sequência e dividido em blocos de linhas. Cada bloco é convertido
+ * e validado em paralelo (campos obrigatórios, números, datas e chaves estrangeiras
+ * pelos índices dos DAOs) e gravado em ordem pelo salvarLote do DAO. No máximo
+ * 2 blocos por thread ficam em andamento, então a memória usada pela importação não
+ * depende do tamanho do arquivo. Linhas recusadas são contadas e não interrompem a
+ * importação.
+ *
+ * Colunas esperadas no cabeçalho (sem diferenciar acentos e maiúsculas):
+ *   alunos:      nome, matricula, email, telefone
+ *   professores: nome, identificador, email, departamento
+ *   disciplinas: nome, codigo, carga_horaria, professor (identificador), semestre
+ *   matriculas:  aluno (matrícula do aluno), disciplina (código), data, status (opcional, ATIVA)
+ */
+public class ImportadorCsv {
+    public static final int TAMANHO_LOTE_PADRAO = 5000;
+
+    private static final Set<String> STATUS_VALIDOS = Set.of("ATIVA", "CANCELADA", "CONCLUIDA");
+
+    private final AlunoDAO alunoDAO;
+    private final ProfessorDAO professorDAO;
+    private final DisciplinaDAO disciplinaDAO;
+    private final MatriculaDAO matriculaDAO;
+    private int tamanhoLote = TAMANHO_LOTE_PADRAO;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private Consumer<ResultadoImportacao> aoProgredir = resultado -> { };
+
+    public ImportadorCsv(AlunoDAO alunoDAO, ProfessorDAO professorDAO, DisciplinaDAO disciplinaDAO,
+                         MatriculaDAO matriculaDAO) {
+        this.alunoDAO = alunoDAO;
+        this.professorDAO = professorDAO;
+        this.disciplinaDAO = disciplinaDAO;
+        this.matriculaDAO = matriculaDAO;
+    }
+
+    public void setTamanhoLote(int tamanhoLote) {
+        this.tamanhoLote = Math.max(1, tamanhoLote);
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    // Chamado após a gravação de cada bloco, na thread que está importando
+    public void setAoProgredir(Consumer<ResultadoImportacao> aoProgredir) {
+        this.aoProgredir = aoProgredir;
+    }
+
+    public ResultadoImportacao importarAlunos(Path arquivo) throws IOException {
+        return importar(arquivo,
+            linha -> new Aluno(
+                linha.obrigatorio("nome", "Nome é obrigatório!"),
+                linha.obrigatorio("matricula", "Matrícula é obrigatória!"),
+                linha.obrigatorio("email", "Email é obrigatório!"),
+                linha.obrigatorio("telefone", "Telefone é obrigatório!")),
+            new Destino<>(Aluno::getMatricula, aluno -> alunoDAO.existeMatricula(aluno.getMatricula()),
+                "Matrícula já existe!", alunoDAO::salvarLote, alunoDAO::salvar));
+    }
+
+    public ResultadoImportacao importarProfessores(Path arquivo) throws IOException {
+        return importar(arquivo,
+            linha -> new Professor(
+                linha.obrigatorio("nome", "Nome é obrigatório!"),
+                linha.obrigatorio("identificador", "Identificador é obrigatório!"),
+                linha.obrigatorio("email", "Email é obrigatório!"),
+                linha.obrigatorio("departamento", "Departamento é obrigatório!")),
+            new Destino<>(Professor::getIdentificador,
+                professor -> professorDAO.existeIdentificador(professor.getIdentificador()),
+                "Identificador já existe!", professorDAO::salvarLote, professorDAO::salvar));
+    }
+
+    public ResultadoImportacao importarDisciplinas(Path arquivo) throws IOException {
+        return importar(arquivo,
+            linha -> {
+                String nome = linha.obrigatorio("nome", "Nome é obrigatório!");
+                String codigo = linha.obrigatorio("codigo", "Código é obrigatório!");
+                int cargaHoraria = inteiro(linha.obrigatorio("cargahoraria", "Carga horária é obrigatória!"),
+                    "Carga horária deve ser um número válido!");
+                String identificador = linha.obrigatorio("professor", "Professor é obrigatório!");
+                Professor professor = professorDAO.buscarPorIdentificador(identificador);
+                if (professor == null) {
+                    throw new IllegalArgumentException("Professor não encontrado: " + identificador);
+                }
+                String semestre = linha.obrigatorio("semestre", "Semestre é obrigatório!");
+                return new Disciplina(nome, codigo, cargaHoraria, professor.getId(), semestre);
+            },
+            new Destino<>(Disciplina::getCodigo, disciplina -> disciplinaDAO.existeCodigo(disciplina.getCodigo()),
+                "Código da disciplina já existe!", disciplinaDAO::salvarLote, disciplinaDAO::salvar));
+    }
+
+    public ResultadoImportacao importarMatriculas(Path arquivo) throws IOException {
+        return importar(arquivo,
+            linha -> {
+                String matriculaAluno = linha.obrigatorio("aluno", "Aluno é obrigatório!");
+                Aluno aluno = alunoDAO.buscarPorMatricula(matriculaAluno);
+                if (aluno == null) {
+                    throw new IllegalArgumentException("Aluno não encontrado: " + matriculaAluno);
+                }
+                String codigo = linha.obrigatorio("disciplina", "Disciplina é obrigatória!");
+                Disciplina disciplina = disciplinaDAO.buscarPorCodigo(codigo);
+                if (disciplina == null) {
+                    throw new IllegalArgumentException("Disciplina não encontrada: " + codigo);
+                }
+                LocalDate data = data(linha.obrigatorio("data", "Data da matrícula é obrigatória!"));
+                String status = linha.texto("status").isEmpty() ? "ATIVA" : linha.texto("status").toUpperCase(Locale.ROOT);
+                if (!STATUS_VALIDOS.contains(status)) {
+                    throw new IllegalArgumentException("Status inválido: " + status);
+                }
+                return new Matricula(aluno.getId(), disciplina.getId(), data, status);
+            },
+            // Só matrículas ativas não podem se repetir para o mesmo aluno e disciplina
+            new Destino<>(
+                matricula -> "ATIVA".equals(matricula.getStatus())
+                    ? List.of(matricula.getAlunoId(), matricula.getDisciplinaId())
+                    : null,
+                matricula -> matriculaDAO.existeMatriculaAtiva(matricula.getAlunoId(), matricula.getDisciplinaId()),
+                "Já existe uma matrícula ativa para este aluno nesta disciplina!",
+                matriculaDAO::salvarLote, matriculaDAO::salvar));
+    }
+
+    private <T> ResultadoImportacao importar(Path arquivo, Function<LinhaCsv, T> converter, Destino<T> destino)
+            throws IOException {
+        ResultadoImportacao resultado = new ResultadoImportacao();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Deque<Future<BlocoConvertido<T>>> pendentes = new ArrayDeque<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            String cabecalho = reader.readLine();
+            if (cabecalho == null) {
+                resultado.concluir();
+                return resultado;
+            }
+            // Marca de ordem de bytes (BOM) que planilhas colocam no início de arquivos UTF-8
+            if (cabecalho.startsWith("\uFEFF")) {
+                cabecalho = cabecalho.substring(1);
+            }
+            char separador = LinhaCsv.detectarSeparador(cabecalho);
+            Map<String, Integer> colunas = LinhaCsv.lerCabecalho(cabecalho, separador);
+
+            long numero = 1;
+            BlocoCsv bloco = new BlocoCsv(tamanhoLote);
+            String texto;
+            while ((texto = reader.readLine()) != null) {
+                numero++;
+                if (texto.isBlank()) {
+                    continue;
+                }
+                bloco.adicionar(texto, numero);
+                if (bloco.cheio()) {
+                    BlocoCsv pronto = bloco;
+                    pendentes.add(executor.submit(() -> pronto.converter(colunas, separador, converter)));
+                    bloco = new BlocoCsv(tamanhoLote);
+                    if (pendentes.size() >= 2 * threads) {
+                        gravar(aguardar(pendentes.poll()), destino, resultado);
+                    }
+                }
+            }
+            if (bloco.tamanho > 0) {
+                BlocoCsv pronto = bloco;
+                pendentes.add(executor.submit(() -> pronto.converter(colunas, separador, converter)));
+            }
+            while (!pendentes.isEmpty()) {
+                gravar(aguardar(pendentes.poll()), destino, resultado);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        resultado.concluir();
+        return resultado;
+    }
+
+    private <T> void gravar(BlocoConvertido<T> bloco, Destino<T> destino, ResultadoImportacao resultado) {
+        resultado.contarLidas(bloco.lidas);
+        for (int i = 0; i < bloco.erros.size(); i++) {
+            resultado.rejeitar(bloco.linhasComErro.get(i), bloco.erros.get(i));
+        }
+
+        // Duplicidades contra o que já está gravado e dentro do próprio bloco; blocos
+        // anteriores já foram gravados, então também são vistos pelo DAO
+        List<T> aceitas = new ArrayList<>(bloco.entidades.size());
+        List<Long> linhasAceitas = new ArrayList<>(bloco.entidades.size());
+        Set<Object> chaves = new HashSet<>();
+        for (int i = 0; i < bloco.entidades.size(); i++) {
+            T entidade = bloco.entidades.get(i);
+            Object chave = destino.chave.apply(entidade);
+            if (chave != null && (!chaves.add(chave) || destino.existe.test(entidade))) {
+                resultado.rejeitar(bloco.linhas.get(i), destino.mensagemDuplicada);
+            } else {
+                aceitas.add(entidade);
+                linhasAceitas.add(bloco.linhas.get(i));
+            }
+        }
+
+        try {
+            destino.salvarLote.accept(aceitas);
+            resultado.contarImportadas(aceitas.size());
+        } catch (IllegalArgumentException e) {
+            // Recusa que a verificação acima não previu (outro processo gravou a mesma
+            // chave): o lote não foi gravado, então grava um a um para isolar a linha
+            for (int i = 0; i < aceitas.size(); i++) {
+                try {
+                    destino.salvar.accept(aceitas.get(i));
+                    resultado.contarImportadas(1);
+                } catch (IllegalArgumentException recusa) {
+                    resultado.rejeitar(linhasAceitas.get(i), recusa.getMessage());
+                }
+            }
+        }
+        aoProgredir.accept(resultado);
+    }
+
+    private static <T> BlocoConvertido<T> aguardar(Future<BlocoConvertido<T>> futuro) throws IOException {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Importação interrompida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static int inteiro(String valor, String mensagem) {
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(mensagem);
+        }
+    }
+
+    private static LocalDate data(String valor) {
+        try {
+            return FormatoData.converter(valor);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Data da matrícula deve estar no formato dd/MM/yyyy!");
+        }
+    }
+
+    // Linhas de texto lidas do arquivo, ainda não convertidas
+    private static final class BlocoCsv {
+        private final String[] textos;
+        private final long[] numeros;
+        private int tamanho = 0;
+
+        BlocoCsv(int capacidade) {
+            textos = new String[capacidade];
+            numeros = new long[capacidade];
+        }
+
+        void adicionar(String texto, long numero) {
+            textos[tamanho] = texto;
+            numeros[tamanho] = numero;
+            tamanho++;
+        }
+
+        boolean cheio() {
+            return tamanho == textos.length;
+        }
+
+        <T> BlocoConvertido<T> converter(Map<String, Integer> colunas, char separador, Function<LinhaCsv, T> converter) {
+            BlocoConvertido<T> convertido = new BlocoConvertido<>(tamanho);
+            for (int i = 0; i < tamanho; i++) {
+                try {
+                    LinhaCsv linha = new LinhaCsv(colunas, LinhaCsv.separar(textos[i], separador), numeros[i]);
+                    convertido.entidades.add(converter.apply(linha));
+                    convertido.linhas.add(numeros[i]);
+                } catch (RuntimeException e) {
+                    convertido.linhasComErro.add(numeros[i]);
+                    convertido.erros.add(e.getMessage());
+                }
+            }
+            return convertido;
+        }
+    }
+
+    private static final class BlocoConvertido<T> {
+        final long lidas;
+        final List<T> entidades;
+        final List<Long> linhas;
+        final List<Long> linhasComErro = new ArrayList<>();
+        final List<String> erros = new ArrayList<>();
+
+        BlocoConvertido(int lidas) {
+            this.lidas = lidas;
+            this.entidades = new ArrayList<>(lidas);
+            this.linhas = new ArrayList<>(lidas);
+        }
+    }
+
+    // Como cada tipo de entidade verifica duplicidade e é gravado
+    private static final class Destino<T> {
+        // Chave que não pode se repetir (null: entidade não verificada)
+        final Function<T, Object> chave;
+        final Predicate<T> existe;
+        final String mensagemDuplicada;
+        final Consumer<List<T>> salvarLote;
+        final Consumer<T> salvar;
+
+        Destino(Function<T, Object> chave, Predicate<T> existe, String mensagemDuplicada,
+                Consumer<List<T>> salvarLote, Consumer<T> salvar) {
+            this.chave = chave;
+            this.existe = existe;
+            this.mensagemDuplicada = mensagemDuplicada;
+            this.salvarLote = salvarLote;
+            this.salvar = salvar;
+        }
+    }
+
+    // Uso: java -cp target/classes importacao.ImportadorCsv <alunos|professores|disciplinas|matriculas> arquivo.csv
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Uso: importacao.ImportadorCsv <alunos|professores|disciplinas|matriculas> <arquivo.csv>");
+            System.exit(1);
+        }
+
+        ContextoDados contexto = new ContextoDados();
+        ImportadorCsv importador = new ImportadorCsv(contexto.getAlunoDAO(), contexto.getProfessorDAO(),
+                contexto.getDisciplinaDAO(), contexto.getMatriculaDAO());
+        importador.setAoProgredir(resultado -> System.out.println(resultado));
+        Path arquivo = Paths.get(args[1]);
+
+        ResultadoImportacao resultado;
+        switch (args[0].toLowerCase(Locale.ROOT)) {
+            case "alunos":
+                resultado = importador.importarAlunos(arquivo);
+                break;
+            case "professores":
+                resultado = importador.importarProfessores(arquivo);
+                break;
+            case "disciplinas":
+                resultado = importador.importarDisciplinas(arquivo);
+                break;
+            case "matriculas":
+                resultado = importador.importarMatriculas(arquivo);
+                break;
+            default:
+                System.err.println("Tipo desconhecido: " + args[0]);
+                System.exit(1);
+                return;
+        }
+
+        System.out.println("Concluído: " + resultado);
+        for (String erro : resultado.getErros()) {
+            System.out.println(erro);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package importacao;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Uma linha de CSV já separada em campos, acessada pelo nome da coluna do cabeçalho.
+ *
+ * Campos podem vir entre aspas (com "" para uma aspa dentro do campo); quebras de linha
+ * dentro de um campo não são suportadas. Os nomes das colunas são comparados sem
+ * acentos, maiúsculas, espaços ou sublinhados: "Carga Horária" e "carga_horaria" são a
+ * mesma coluna.
+ */
+final class LinhaCsv {
+    private final Map<String, Integer> colunas;
+    private final String[] valores;
+    private final long numero;
+
+    LinhaCsv(Map<String, Integer> colunas, String[] valores, long numero) {
+        this.colunas = colunas;
+        this.valores = valores;
+        this.numero = numero;
+    }
+
+    long getNumero() {
+        return numero;
+    }
+
+    // Valor da coluna sem espaços nas pontas; vazio se a coluna não existe na linha
+    String texto(String coluna) {
+        Integer indice = colunas.get(coluna);
+        if (indice == null || indice >= valores.length) {
+            return "";
+        }
+        return valores[indice].trim();
+    }
+
+    // Valor obrigatório que será gravado em arquivo separado por ';'
+    String obrigatorio(String coluna, String mensagem) {
+        String valor = texto(coluna);
+        if (valor.isEmpty()) {
+            throw new IllegalArgumentException(mensagem);
+        }
+        if (valor.indexOf(';') >= 0) {
+            throw new IllegalArgumentException("Campo " + coluna + " não pode conter ';'");
+        }
+        return valor;
+    }
+
+    // Mapa nome normalizado -> posição, a partir da linha de cabeçalho
+    static Map<String, Integer> lerCabecalho(String linha, char separador) {
+        String[] nomes = separar(linha, separador);
+        Map<String, Integer> colunas = new HashMap<>();
+        for (int i = 0; i < nomes.length; i++) {
+            colunas.putIfAbsent(normalizarNome(nomes[i]), i);
+        }
+        return colunas;
+    }
+
+    // ';' quando o cabeçalho usa ponto e vírgula, senão vírgula
+    static char detectarSeparador(String cabecalho) {
+        return cabecalho.indexOf(';') >= 0 && cabecalho.indexOf(',') < 0 ? ';' : ',';
+    }
+
+    static String[] separar(String linha, char separador) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"') {
+                    if (i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else {
+                        entreAspas = false;
+                    }
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        campos.add(campo.toString());
+        return campos.toArray(new String[0]);
+    }
+
+    static String normalizarNome(String nome) {
+        String semAcentos = Normalizer.normalize(nome, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return semAcentos.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+}
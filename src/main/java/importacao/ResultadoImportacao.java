@@ -0,0 +1,71 @@
+package importacao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Contadores de uma importação. Durante a importação é atualizado pela thread que
+ * grava e repassado ao acompanhamento de progresso após cada lote.
+ */
+public class ResultadoImportacao {
+    // Só as primeiras mensagens são guardadas, para a memória não crescer com o arquivo
+    static final int MAXIMO_ERROS_GUARDADOS = 100;
+
+    private final long inicio = System.nanoTime();
+    private long fim = 0;
+    private long linhasLidas = 0;
+    private long importadas = 0;
+    private long rejeitadas = 0;
+    private final List<String> erros = new ArrayList<>();
+
+    void contarLidas(long linhas) {
+        linhasLidas += linhas;
+    }
+
+    void contarImportadas(long quantidade) {
+        importadas += quantidade;
+    }
+
+    void rejeitar(long linha, String motivo) {
+        rejeitadas++;
+        if (erros.size() < MAXIMO_ERROS_GUARDADOS) {
+            erros.add("Linha " + linha + ": " + motivo);
+        }
+    }
+
+    void concluir() {
+        fim = System.nanoTime();
+    }
+
+    public long getLinhasLidas() {
+        return linhasLidas;
+    }
+
+    public long getImportadas() {
+        return importadas;
+    }
+
+    public long getRejeitadas() {
+        return rejeitadas;
+    }
+
+    public List<String> getErros() {
+        return Collections.unmodifiableList(erros);
+    }
+
+    public long getTempoMs() {
+        return ((fim != 0 ? fim : System.nanoTime()) - inicio) / 1_000_000;
+    }
+
+    public double getLinhasPorSegundo() {
+        long tempoMs = Math.max(1, getTempoMs());
+        return linhasLidas * 1000.0 / tempoMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d linhas lidas, %d importadas, %d rejeitadas em %d ms (%.0f linhas/s)",
+                linhasLidas, importadas, rejeitadas, getTempoMs(), getLinhasPorSegundo());
+    }
+}
@@ -0,0 +1,563 @@
+import classes.Aluno;
+import classes.Matricula;
+import dao.AlunoDAO;
+import dao.Compactador;
+import dao.ConfiguracaoArmazenamento;
+import dao.ContextoDados;
+import dao.MatriculaDAO;
+import dao.Pagina;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Testes das formas de armazenamento alternativas: journal (somente acréscimo),
+ * compactação e arquivo binário de matrículas, da sequência de ids, do acesso concorrente
+ * e da gravação segura contra quedas.
+ */
+public class ArmazenamentoTest {
+
+  private static final File JOURNAL = new File("dados/alunos.journal");
+  private static final File TEXTO = new File("dados/alunos.txt");
+  private static final File INDICE = new File("dados/alunos.idx");
+  private static final File SEQUENCIA = new File("dados/alunos.seq");
+  private static final File BINARIO = new File("dados/matriculas.bin");
+  private static final File BINARIO_INDICE = new File("dados/matriculas.bin.idx");
+  private static final File MATRICULAS_TEXTO = new File("dados/matriculas.txt");
+  private static final File MATRICULAS_JOURNAL = new File("dados/matriculas.journal");
+
+  @BeforeEach
+  public void setUp() {
+    new File("dados").mkdirs();
+    JOURNAL.delete();
+    TEXTO.delete();
+    INDICE.delete();
+    BINARIO.delete();
+    BINARIO_INDICE.delete();
+    MATRICULAS_TEXTO.delete();
+    MATRICULAS_JOURNAL.delete();
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.JOURNAL);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    Compactador.aguardarConclusao();
+    ConfiguracaoArmazenamento.setMinimoRegistrosCompactacao(1000);
+    ConfiguracaoArmazenamento.setLimiteLixoCompactacao(0.5);
+    ConfiguracaoArmazenamento.setMatriculasBinario(false);
+    ConfiguracaoArmazenamento.setSincronizacao(ConfiguracaoArmazenamento.Sincronizacao.GRUPO);
+    ConfiguracaoArmazenamento.setAquecimentoParcial(false);
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    JOURNAL.delete();
+    TEXTO.delete();
+    INDICE.delete();
+    BINARIO.delete();
+    BINARIO_INDICE.delete();
+    MATRICULAS_TEXTO.delete();
+    MATRICULAS_JOURNAL.delete();
+  }
+
+  @Test
+  @DisplayName("Cada operação acrescenta uma linha e a releitura reconstrói o estado")
+  public void testReaplicacaoDoJournal() throws IOException {
+    AlunoDAO alunoDAO = new AlunoDAO();
+    Aluno joao = new Aluno("João Silva", "2023001", "joao@email.com", "(11) 99999-9999");
+    Aluno ana = new Aluno("Ana Souza", "2023002", "ana@email.com", "(11) 88888-8888");
+    alunoDAO.salvar(joao);
+    alunoDAO.salvar(ana);
+    joao.setNome("João Editado");
+    alunoDAO.salvar(joao);
+    alunoDAO.excluir(ana.getId());
+
+    assertEquals(4, Files.readAllLines(JOURNAL.toPath()).size(), "Journal deve ter uma linha por operação");
+    assertFalse(TEXTO.exists(), "Arquivo texto não deve ser gravado no modo journal");
+
+    // Força a releitura do disco
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.JOURNAL);
+    List<Aluno> alunos = new AlunoDAO().listarTodos();
+
+    assertEquals(1, alunos.size(), "Apenas o aluno não excluído deve permanecer");
+    assertEquals("João Editado", alunos.get(0).getNome(), "Deve prevalecer a última gravação");
+  }
+
+  @Test
+  @DisplayName("Registro final incompleto é descartado na abertura")
+  public void testRegistroIncompletoDescartado() throws IOException {
+    try (FileWriter writer = new FileWriter(JOURNAL)) {
+      writer.write("S;1;João Silva;2023001;joao@email.com;(11) 99999-9999\n");
+      writer.write("S;2;Ana Sou");
+    }
+
+    AlunoDAO alunoDAO = new AlunoDAO();
+    assertEquals(1, alunoDAO.listarTodos().size(), "Somente o registro completo deve ser lido");
+
+    alunoDAO.salvar(new Aluno("Ana Souza", "2023002", "ana@email.com", "(11) 88888-8888"));
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.JOURNAL);
+    assertEquals(2, new AlunoDAO().listarTodos().size(), "Novo registro não deve se misturar ao incompleto");
+  }
+
+  @Test
+  @DisplayName("Registro que não decodifica é deixado de fora e listado para o usuário")
+  public void testRegistroInvalidoListado() throws IOException {
+    try (FileWriter writer = new FileWriter(JOURNAL)) {
+      writer.write("S;1;João Silva;2023001;joao@email.com;(11) 99999-9999\n");
+      writer.write("S;sem id\n");
+      writer.write("S;2;Ana Souza;2023002;ana@email.com;(11) 88888-8888\n");
+    }
+
+    ContextoDados contexto = new ContextoDados();
+    contexto.aquecer();
+
+    assertEquals(2, contexto.getAlunoDAO().listarTodos().size(), "Os registros válidos devem ser lidos");
+    List<String> ignorados = contexto.getRegistrosIgnorados();
+    assertEquals(1, ignorados.size());
+    assertTrue(ignorados.get(0).contains("linha 2"), ignorados.get(0));
+  }
+
+  @Test
+  @DisplayName("Journal é criado a partir do arquivo texto existente")
+  public void testMigracaoDoArquivoTexto() throws IOException {
+    try (FileWriter writer = new FileWriter(TEXTO)) {
+      writer.write("7;Carlos Lima;2023007;carlos@email.com;(11) 77777-7777\n");
+    }
+
+    Aluno aluno = new AlunoDAO().buscarPorId(7);
+
+    assertNotNull(aluno, "Aluno do arquivo texto deve ser encontrado");
+    assertTrue(JOURNAL.exists(), "Journal deve ser criado na primeira abertura");
+  }
+
+  @Test
+  @DisplayName("Compactação remove registros superados e mantém o estado")
+  public void testCompactacaoEmSegundoPlano() throws IOException {
+    ConfiguracaoArmazenamento.setMinimoRegistrosCompactacao(10);
+    ConfiguracaoArmazenamento.setLimiteLixoCompactacao(0.5);
+    long bytesAntes = Compactador.getBytesRecuperados();
+    long compactacoesAntes = Compactador.getCompactacoesRealizadas();
+
+    AlunoDAO alunoDAO = new AlunoDAO();
+    Aluno aluno = new Aluno("João Silva", "2023001", "joao@email.com", "(11) 99999-9999");
+    for (int i = 0; i < 20; i++) {
+      aluno.setTelefone("(11) 90000-00" + String.format("%02d", i));
+      alunoDAO.salvar(aluno);
+    }
+    Compactador.aguardarConclusao();
+
+    assertTrue(Compactador.getCompactacoesRealizadas() > compactacoesAntes, "Deve ter ocorrido compactação");
+    assertTrue(Compactador.getBytesRecuperados() > bytesAntes, "Compactação deve liberar espaço");
+    assertTrue(Files.readAllLines(JOURNAL.toPath()).size() < 20, "Journal deve ter menos registros");
+
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.JOURNAL);
+    List<Aluno> alunos = new AlunoDAO().listarTodos();
+    assertEquals(1, alunos.size(), "Deve restar um único aluno");
+    assertEquals("(11) 90000-0019", alunos.get(0).getTelefone(), "Deve prevalecer a última gravação");
+  }
+
+  @Test
+  @DisplayName("Matrículas em registros binários de tamanho fixo")
+  public void testMatriculasBinario() {
+    ConfiguracaoArmazenamento.setMatriculasBinario(true);
+    MatriculaDAO matriculaDAO = new MatriculaDAO();
+    Matricula m1 = new Matricula(1, 10, LocalDate.of(2024, 2, 15), "ATIVA");
+    Matricula m2 = new Matricula(2, 10, LocalDate.of(2024, 2, 16), "ATIVA");
+    matriculaDAO.salvar(m1);
+    matriculaDAO.salvar(m2);
+    m1.setStatus("CONCLUIDA");
+    matriculaDAO.salvar(m1);
+    matriculaDAO.excluir(m2.getId());
+    matriculaDAO.salvar(new Matricula(3, 10, LocalDate.of(2024, 2, 17), "CANCELADA"));
+
+    assertEquals(8 + 2 * 17, BINARIO.length(), "Slot excluído deve ser reaproveitado");
+    assertFalse(MATRICULAS_TEXTO.exists(), "Arquivo texto não deve ser gravado");
+
+    ConfiguracaoArmazenamento.setMatriculasBinario(true);
+    MatriculaDAO releitura = new MatriculaDAO();
+    Matricula lida = releitura.buscarPorId(m1.getId());
+    assertEquals(2, releitura.listarTodos().size(), "Devem restar 2 matrículas");
+    assertEquals("CONCLUIDA", lida.getStatus(), "Status alterado deve ser lido");
+    assertEquals(LocalDate.of(2024, 2, 15), lida.getDataMatricula(), "Data deve ser preservada");
+    assertEquals(1, releitura.buscarPorAluno(3).size(), "Matrícula no slot reaproveitado deve ser lida");
+  }
+
+  @Test
+  @DisplayName("Linha inválida do .txt fica de fora da migração para o binário e é listada")
+  public void testMigracaoBinarioComLinhaInvalida() throws IOException {
+    try (FileWriter writer = new FileWriter(MATRICULAS_TEXTO)) {
+      writer.write("1;10;20;15/02/2024;ATIVA\n");
+      writer.write("2;10;sem data\n");
+      writer.write("3;11;20;16/02/2024;INVALIDO\n");
+      writer.write("4;12;20;17/02/2024;CONCLUIDA\n");
+    }
+
+    ConfiguracaoArmazenamento.setMatriculasBinario(true);
+    ContextoDados contexto = new ContextoDados();
+    contexto.aquecer();
+
+    assertEquals(2, contexto.getMatriculaDAO().listarTodos().size(), "As linhas válidas devem ser migradas");
+    assertFalse(new File("dados/matriculas.bin.tmp").exists(), "Não deve sobrar temporário da migração");
+    List<String> ignorados = contexto.getRegistrosIgnorados();
+    assertEquals(2, ignorados.size());
+    assertTrue(ignorados.get(0).contains("linha 2"), ignorados.get(0));
+    assertTrue(ignorados.get(1).contains("linha 3"), ignorados.get(1));
+  }
+
+  @Test
+  @DisplayName("Carga completa do binário em blocos grava o índice e a busca lê só o slot")
+  public void testMatriculasBinarioPorSlot() throws IOException {
+    ConfiguracaoArmazenamento.setMatriculasBinario(true);
+    List<Matricula> matriculas = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      matriculas.add(new Matricula(i, 1, LocalDate.of(2024, 2, 1), "ATIVA"));
+    }
+    new MatriculaDAO().salvarLote(matriculas);
+
+    // Novo processo: a carga atravessa mais de um bloco e deixa o índice dos slots
+    ConfiguracaoArmazenamento.setMatriculasBinario(true);
+    assertEquals(5000, new MatriculaDAO().listarTodos().size());
+    assertTrue(BINARIO_INDICE.exists(), "A carga completa deve gravar o índice de ids");
+
+    // Troca o status no slot sem mudar tamanho nem data: só uma leitura do slot pelo
+    // índice vê a troca, a carga completa anterior não
+    Matricula alvo = matriculas.get(4500);
+    FileTime data = Files.getLastModifiedTime(BINARIO.toPath());
+    try (RandomAccessFile arquivo = new RandomAccessFile(BINARIO, "rw")) {
+      arquivo.seek(8 + 4500L * 17 + 16);
+      arquivo.write(3);
+    }
+    Files.setLastModifiedTime(BINARIO.toPath(), data);
+
+    ConfiguracaoArmazenamento.setMatriculasBinario(true);
+    Matricula lida = new MatriculaDAO().buscarPorId(alvo.getId());
+    assertEquals("CONCLUIDA", lida.getStatus(), "A busca deve ler o slot pelo índice");
+    assertEquals(alvo.getAlunoId(), lida.getAlunoId());
+  }
+
+  @Test
+  @DisplayName("Ids gerados em paralelo são únicos e continuam após recriar os DAOs")
+  public void testSequenciaDeIdsConcorrente() throws Exception {
+    MatriculaDAO matriculaDAO = new MatriculaDAO();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<Integer>> ids = new ArrayList<>();
+    for (int i = 0; i < 400; i++) {
+      int alunoId = i;
+      ids.add(executor.submit(() -> {
+        Matricula matricula = new Matricula(alunoId, 1, LocalDate.now(), "ATIVA");
+        matriculaDAO.salvar(matricula);
+        return matricula.getId();
+      }));
+    }
+    executor.shutdown();
+
+    Set<Integer> unicos = new HashSet<>();
+    int maior = 0;
+    for (Future<Integer> id : ids) {
+      assertTrue(unicos.add(id.get()), "Id repetido: " + id.get());
+      maior = Math.max(maior, id.get());
+    }
+    assertEquals(400, matriculaDAO.listarTodos().size(), "Todas as matrículas devem ser gravadas");
+
+    // Id informado pelo chamador não pode ser gerado de novo
+    matriculaDAO.salvar(new Matricula(maior + 500, 1, 2, LocalDate.now(), "ATIVA"));
+    Matricula seguinte = new Matricula(1, 3, LocalDate.now(), "ATIVA");
+    matriculaDAO.salvar(seguinte);
+    assertTrue(seguinte.getId() > maior + 500, "Sequência deve passar do id informado");
+
+    // Troca de modo descarta os caches; a sequência recomeça do arquivo .seq
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    Matricula depois = new Matricula(1, 4, LocalDate.now(), "ATIVA");
+    new MatriculaDAO().salvar(depois);
+    assertTrue(depois.getId() > seguinte.getId(), "Ids não devem ser reutilizados após recriar o DAO");
+  }
+
+  @Test
+  @DisplayName("Leituras em paralelo com gravações nunca veem o arquivo pela metade")
+  public void testLeituraEGravacaoConcorrentes() throws Exception {
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    AlunoDAO alunoDAO = new AlunoDAO();
+    ExecutorService executor = Executors.newFixedThreadPool(6);
+    List<Future<?>> tarefas = new ArrayList<>();
+    for (int t = 0; t < 3; t++) {
+      int grupo = t;
+      tarefas.add(executor.submit(() -> {
+        for (int i = 0; i < 50; i++) {
+          alunoDAO.salvar(new Aluno("Aluno " + grupo + "-" + i, "M" + grupo + "-" + i, "a@email.com", "(11) 0000-0000"));
+        }
+      }));
+      tarefas.add(executor.submit(() -> {
+        int anterior = 0;
+        for (int i = 0; i < 200; i++) {
+          int atual = alunoDAO.listarTodos().size();
+          assertTrue(atual >= anterior, "A quantidade lida não pode diminuir");
+          anterior = atual;
+        }
+      }));
+    }
+    executor.shutdown();
+    for (Future<?> tarefa : tarefas) {
+      tarefa.get();
+    }
+
+    // Releitura do arquivo por um cache novo
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    assertEquals(150, new AlunoDAO().listarTodos().size(), "Todas as gravações devem estar no arquivo");
+  }
+
+  @Test
+  @DisplayName("Reescrita do arquivo texto passa por temporário e rename atômico")
+  public void testSubstituicaoAtomicaDoTexto() throws IOException {
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    File temporario = new File("dados/alunos.txt.tmp");
+    // Sobra de um processo que caiu no meio da gravação
+    try (FileWriter writer = new FileWriter(temporario)) {
+      writer.write("99;Pela metade;");
+    }
+
+    AlunoDAO alunoDAO = new AlunoDAO();
+    alunoDAO.salvar(new Aluno("João Silva", "2023001", "joao@email.com", "(11) 99999-9999"));
+    alunoDAO.salvar(new Aluno("Ana Souza", "2023002", "ana@email.com", "(11) 88888-8888"));
+
+    assertFalse(temporario.exists(), "O temporário deve ter sido trocado pelo arquivo");
+    assertEquals(2, Files.readAllLines(TEXTO.toPath()).size(), "Arquivo deve ter as duas linhas completas");
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    assertEquals(2, new AlunoDAO().listarTodos().size(), "Releitura não deve ver o conteúdo do temporário");
+  }
+
+  @Test
+  @DisplayName("Falha ao gravar chega a quem salvou e o cache volta ao que está no arquivo")
+  public void testFalhaNaGravacao() throws IOException {
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    AlunoDAO alunoDAO = new AlunoDAO();
+    Aluno joao = new Aluno("João Silva", "2023001", "joao@email.com", "(11) 99999-9999");
+    alunoDAO.salvar(joao);
+
+    // Um diretório não vazio no lugar do temporário impede a reescrita (e não é apagado
+    // junto com o temporário que falhou)
+    File temporario = new File("dados/alunos.txt.tmp");
+    File dentro = new File(temporario, "ocupado");
+    assertTrue(temporario.mkdir());
+    assertTrue(dentro.createNewFile());
+    try {
+      Aluno ana = new Aluno("Ana Souza", "2023002", "ana@email.com", "(11) 88888-8888");
+      assertThrows(UncheckedIOException.class, () -> alunoDAO.salvar(ana));
+      assertThrows(UncheckedIOException.class, () -> alunoDAO.excluir(joao.getId()));
+      assertEquals(1, alunoDAO.listarTodos().size(), "Cache deve voltar ao conteúdo do arquivo");
+      assertNull(alunoDAO.buscarPorMatricula("2023002"), "Aluno não gravado não deve aparecer");
+    } finally {
+      dentro.delete();
+      temporario.delete();
+    }
+
+    alunoDAO.salvar(new Aluno("Ana Souza", "2023002", "ana@email.com", "(11) 88888-8888"));
+    assertEquals(2, Files.readAllLines(TEXTO.toPath()).size(), "Gravação seguinte deve funcionar");
+  }
+
+  @Test
+  @DisplayName("Índice de ids no disco responde sem carregar o arquivo e é refeito quando fica para trás")
+  public void testIndiceDeIdsNoDisco() throws IOException {
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    List<Aluno> alunos = new ArrayList<>();
+    for (int i = 0; i < 600; i++) {
+      alunos.add(new Aluno("Aluno " + i, "I" + i, "i" + i + "@email.com", "(11) 0000-0000"));
+    }
+    new AlunoDAO().salvarLote(alunos);
+    assertTrue(INDICE.exists(), "A gravação deve deixar o índice ao lado do arquivo");
+
+    // Novo processo: nada carregado
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    AlunoDAO alunoDAO = new AlunoDAO();
+    assertEquals("Aluno 599", alunoDAO.buscarPorId(alunos.get(599).getId()).getNome());
+    assertNull(alunoDAO.buscarPorId(alunos.get(599).getId() + 1000));
+    Pagina<Aluno> pagina = alunoDAO.listar(alunos.get(254).getId(), 5);
+    assertEquals(alunos.get(255).getId(), pagina.getItens().get(0).getId(), "Faixa atravessa o fim da primeira página do índice");
+    assertEquals("Aluno 259", pagina.getItens().get(4).getNome());
+    assertNotNull(pagina.getProximo());
+
+    // Mesmo tamanho e data: com o arquivo carregado a memória não veria a troca, então
+    // ver o nome novo mostra que a busca leu só a linha pelo índice
+    substituirMantendoData("Aluno 10;", "Troca 10;");
+    assertEquals("Troca 10", alunoDAO.buscarPorId(alunos.get(10).getId()).getNome());
+
+    // Alterado por fora sem o índice: a busca carrega o arquivo e o índice é refeito
+    try (FileWriter writer = new FileWriter(TEXTO, true)) {
+      writer.write("9999;Por fora;X1;x@email.com;(11) 0000-0000\n");
+    }
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    assertEquals("Por fora", new AlunoDAO().buscarPorId(9999).getNome());
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    substituirMantendoData("Aluno 20;", "Troca 20;");
+    assertEquals("Troca 20", new AlunoDAO().buscarPorId(alunos.get(20).getId()).getNome(),
+        "Depois da carga completa o índice volta a valer");
+  }
+
+  @Test
+  @DisplayName("Buscas paralelas pelo índice de ids dividem o bloqueio compartilhado e o liberam")
+  public void testBuscasParalelasPeloIndice() throws Exception {
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    List<Aluno> alunos = new ArrayList<>();
+    for (int i = 0; i < 600; i++) {
+      alunos.add(new Aluno("Aluno " + i, "P" + i, "p" + i + "@email.com", "(11) 0000-0000"));
+    }
+    new AlunoDAO().salvarLote(alunos);
+
+    // Novo processo: as buscas vão ao índice no disco, sem carregar o arquivo
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    AlunoDAO alunoDAO = new AlunoDAO();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<Boolean>> buscas = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      int deslocamento = t;
+      buscas.add(executor.submit(() -> {
+        for (int i = deslocamento; i < alunos.size(); i += 8) {
+          Aluno aluno = alunoDAO.buscarPorId(alunos.get(i).getId());
+          if (aluno == null || !aluno.getNome().equals("Aluno " + i)) {
+            return false;
+          }
+        }
+        return true;
+      }));
+    }
+    for (Future<Boolean> busca : buscas) {
+      assertTrue(busca.get(10, TimeUnit.SECONDS), "Cada busca deve achar o aluno pelo índice");
+    }
+    executor.shutdown();
+
+    // Se algum compartilhado tivesse ficado preso, a gravação (exclusiva) não passaria
+    ExecutorService gravador = Executors.newSingleThreadExecutor();
+    Future<?> gravacao = gravador.submit(() ->
+        alunoDAO.salvar(new Aluno("Depois", "PX", "px@email.com", "(11) 0000-0000")));
+    gravacao.get(10, TimeUnit.SECONDS);
+    gravador.shutdown();
+    assertEquals(601, alunoDAO.listarTodos().size());
+  }
+
+  @Test
+  @DisplayName("Id definido pelo chamador vai para o .seq e a primeira reserva usa o índice de ids")
+  public void testSequenciaComIdDefinidoEIndice() throws IOException {
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    SEQUENCIA.delete();
+    new AlunoDAO().salvar(new Aluno(5000, "Importado", "I5000", "i@email.com", "(11) 0000-0000"));
+    assertEquals(5001, Integer.parseInt(Files.readString(SEQUENCIA.toPath()).trim()),
+        "Id acima da sequência deve ser gravado no .seq");
+
+    // Outro processo, com os dados apagados: só o .seq impede que 5000 seja gerado de novo
+    TEXTO.delete();
+    INDICE.delete();
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    Aluno novo = new Aluno("Novo", "N1", "n@email.com", "(11) 0000-0000");
+    new AlunoDAO().salvar(novo);
+    assertTrue(novo.getId() > 5000, "Id gravado no .seq não pode ser gerado de novo");
+
+    try (FileWriter writer = new FileWriter(TEXTO)) {
+      for (int i = 1; i <= 300; i++) {
+        writer.write(i + ";Aluno " + i + ";M" + i + ";m" + i + "@email.com;(11) 0000-0000\n");
+      }
+    }
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    new AlunoDAO().listarTodos();
+    // Troca um id sem mudar tamanho nem data: o índice continua valendo e ainda diz que o
+    // maior id é 300, enquanto a carga completa veria 950
+    substituirMantendoData("250;Aluno 250;", "950;Aluno 250;");
+    SEQUENCIA.delete();
+
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    Aluno seguinte = new Aluno("Seguinte", "S1", "s@email.com", "(11) 0000-0000");
+    new AlunoDAO().salvar(seguinte);
+    assertEquals(301, seguinte.getId(), "Primeira reserva deve partir da última entrada do índice");
+  }
+
+  @Test
+  @DisplayName("aquecer() carrega tudo e, com aquecimento parcial, deixa sem carregar quem tem o índice em dia")
+  public void testAquecerComIndiceNoDisco() throws IOException {
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    Aluno joao = new Aluno("João Silva", "2023001", "joao@email.com", "(11) 99999-9999");
+    new AlunoDAO().salvar(joao);
+
+    // Padrão: o arquivo é carregado, e a troca feita com a mesma data e tamanho não é vista
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    new ContextoDados().aquecer();
+    substituirMantendoData("João Silva;", "João Silvo;");
+    assertEquals("João Silva", new AlunoDAO().buscarPorId(joao.getId()).getNome(),
+        "A busca deve responder da memória carregada por aquecer()");
+
+    ConfiguracaoArmazenamento.setAquecimentoParcial(true);
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.TEXTO);
+    new ContextoDados().aquecer();
+    substituirMantendoData("João Silvo;", "João Silve;");
+    assertEquals("João Silve", new AlunoDAO().buscarPorId(joao.getId()).getNome(),
+        "A busca deve ler a linha pelo índice, sem o arquivo ter sido carregado");
+  }
+
+  private static void substituirMantendoData(String antes, String depois) throws IOException {
+    FileTime data = Files.getLastModifiedTime(TEXTO.toPath());
+    String conteudo = new String(Files.readAllBytes(TEXTO.toPath()), StandardCharsets.UTF_8);
+    Files.write(TEXTO.toPath(), conteudo.replace(antes, depois).getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(TEXTO.toPath(), data);
+  }
+
+  @Test
+  @DisplayName("Commit em grupo mantém todas as gravações paralelas do journal")
+  public void testCommitEmGrupo() throws Exception {
+    ConfiguracaoArmazenamento.setSincronizacao(ConfiguracaoArmazenamento.Sincronizacao.GRUPO);
+    AlunoDAO alunoDAO = new AlunoDAO();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<?>> tarefas = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      int numero = i;
+      tarefas.add(executor.submit(() ->
+          alunoDAO.salvar(new Aluno("Aluno " + numero, "G" + numero, "g@email.com", "(11) 0000-0000"))));
+    }
+    executor.shutdown();
+    for (Future<?> tarefa : tarefas) {
+      tarefa.get();
+    }
+
+    assertEquals(200, Files.readAllLines(JOURNAL.toPath()).size(), "Uma linha por gravação");
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.JOURNAL);
+    assertEquals(200, new AlunoDAO().listarTodos().size(), "Todas as gravações devem ser relidas");
+  }
+
+  @Test
+  @DisplayName("Lote no journal e no binário vira uma escrita e sobrevive à releitura")
+  public void testLoteNosFormatosDeAcrescimo() throws IOException {
+    AlunoDAO alunoDAO = new AlunoDAO();
+    List<Aluno> alunos = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      alunos.add(new Aluno("Aluno " + i, "L" + i, "l@email.com", "(11) 0000-0000"));
+    }
+    alunoDAO.salvarLote(alunos);
+    alunoDAO.excluirLote(List.of(alunos.get(0).getId(), alunos.get(1).getId()));
+    assertEquals(52, Files.readAllLines(JOURNAL.toPath()).size(), "50 gravações e 2 exclusões");
+
+    ConfiguracaoArmazenamento.setMatriculasBinario(true);
+    MatriculaDAO matriculaDAO = new MatriculaDAO();
+    List<Matricula> matriculas = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      matriculas.add(new Matricula(i, 1, LocalDate.of(2024, 2, 1), "ATIVA"));
+    }
+    matriculas.add(new Matricula(99, 1, LocalDate.of(2024, 2, 1), "INVALIDO"));
+    assertThrows(IllegalArgumentException.class, () -> matriculaDAO.salvarLote(matriculas));
+    assertTrue(matriculaDAO.listarTodos().isEmpty(), "Lote com status inválido não deve gravar nada");
+
+    matriculas.remove(matriculas.size() - 1);
+    matriculaDAO.salvarLote(matriculas);
+    matriculaDAO.excluirLote(List.of(matriculas.get(0).getId()));
+
+    ConfiguracaoArmazenamento.setModo(ConfiguracaoArmazenamento.Modo.JOURNAL);
+    assertEquals(48, new AlunoDAO().listarTodos().size());
+    assertEquals(19, new MatriculaDAO().listarTodos().size());
+  }
+}
@@ -0,0 +1,128 @@
+import classes.Aluno;
+import classes.Disciplina;
+import classes.LinhaMatricula;
+import classes.Matricula;
+import classes.Professor;
+import dao.AlunoDAO;
+import dao.ConsultaMatriculas;
+import dao.DisciplinaDAO;
+import dao.MatriculaDAO;
+import dao.ProfessorDAO;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Testes da junção de matrículas com aluno, disciplina e professor usada na tabela de
+ * matrículas, incluindo entidades sem matrícula e referências que não existem mais.
+ */
+public class ConsultaMatriculasTest {
+
+  private AlunoDAO alunoDAO;
+  private ProfessorDAO professorDAO;
+  private DisciplinaDAO disciplinaDAO;
+  private MatriculaDAO matriculaDAO;
+  private ConsultaMatriculas consulta;
+
+  private Aluno joao;
+  private Aluno semMatricula;
+  private Professor professor;
+  private Disciplina calculo;
+  private Disciplina semAlunos;
+
+  @BeforeEach
+  public void setUp() {
+    limparArquivosDados();
+    alunoDAO = new AlunoDAO();
+    professorDAO = new ProfessorDAO();
+    disciplinaDAO = new DisciplinaDAO();
+    matriculaDAO = new MatriculaDAO();
+    consulta = new ConsultaMatriculas(matriculaDAO, alunoDAO, disciplinaDAO, professorDAO);
+
+    joao = new Aluno("João Silva", "2023001", "joao@email.com", "(11) 99999-9999");
+    semMatricula = new Aluno("Ana Souza", "2023002", "ana@email.com", "(11) 88888-8888");
+    alunoDAO.salvar(joao);
+    alunoDAO.salvar(semMatricula);
+    professor = new Professor("Maria Santos", "P001", "maria@email.com", "Matemática");
+    professorDAO.salvar(professor);
+    calculo = new Disciplina("Cálculo I", "MAT101", 60, professor.getId(), "2024.1");
+    semAlunos = new Disciplina("Álgebra", "MAT102", 60, professor.getId(), "2024.1");
+    disciplinaDAO.salvar(calculo);
+    disciplinaDAO.salvar(semAlunos);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    limparArquivosDados();
+  }
+
+  private void limparArquivosDados() {
+    new File("dados").mkdirs();
+    new File("dados/alunos.txt").delete();
+    new File("dados/professores.txt").delete();
+    new File("dados/disciplinas.txt").delete();
+    new File("dados/matriculas.txt").delete();
+  }
+
+  @Test
+  @DisplayName("Sem matrículas as consultas voltam vazias")
+  public void testSemMatriculas() {
+    assertTrue(consulta.listarLinhas().isEmpty());
+    assertTrue(consulta.buscarLinhas(new int[0]).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Aluno e disciplina sem matrícula não geram linhas")
+  public void testAlunoEDisciplinaSemMatricula() {
+    Matricula matricula = new Matricula(joao.getId(), calculo.getId(), LocalDate.of(2024, 2, 15), "ATIVA");
+    matriculaDAO.salvar(matricula);
+
+    List<LinhaMatricula> linhas = consulta.listarLinhas();
+    assertEquals(1, linhas.size(), "Só a matrícula existente deve virar linha");
+    LinhaMatricula linha = linhas.get(0);
+    assertEquals(matricula.getId(), linha.getId());
+    assertEquals("João Silva", linha.getNomeAluno());
+    assertEquals("Cálculo I", linha.getNomeDisciplina());
+    assertEquals("Maria Santos", linha.getNomeProfessor());
+    assertEquals(joao.getId(), linha.getAlunoId());
+    assertEquals(calculo.getId(), linha.getDisciplinaId());
+    assertEquals(professor.getId(), linha.getProfessorId());
+    assertTrue(matriculaDAO.buscarPorAluno(semMatricula.getId()).isEmpty());
+    assertTrue(matriculaDAO.buscarPorDisciplina(semAlunos.getId()).isEmpty());
+
+    List<LinhaMatricula> buscadas = consulta.buscarLinhas(new int[]{matricula.getId()});
+    assertEquals(1, buscadas.size());
+    assertEquals("João Silva", buscadas.get(0).getNomeAluno());
+  }
+
+  @Test
+  @DisplayName("Matrícula excluída vira null e referência excluída mostra que não foi encontrada")
+  public void testIdsQueNaoExistemMais() {
+    Matricula excluida = new Matricula(joao.getId(), calculo.getId(), LocalDate.of(2024, 2, 15), "ATIVA");
+    Matricula semAluno = new Matricula(semMatricula.getId(), calculo.getId(), LocalDate.of(2024, 2, 16), "ATIVA");
+    Matricula semDisciplina = new Matricula(joao.getId(), semAlunos.getId(), LocalDate.of(2024, 2, 17), "ATIVA");
+    matriculaDAO.salvar(excluida);
+    matriculaDAO.salvar(semAluno);
+    matriculaDAO.salvar(semDisciplina);
+
+    matriculaDAO.excluir(excluida.getId());
+    alunoDAO.excluir(semMatricula.getId());
+    disciplinaDAO.excluir(semAlunos.getId());
+
+    List<LinhaMatricula> linhas = consulta.buscarLinhas(
+        new int[]{excluida.getId(), semAluno.getId(), semDisciplina.getId(), 999999});
+    assertEquals(4, linhas.size(), "Uma posição por id pedido, na mesma ordem");
+    assertNull(linhas.get(0), "Matrícula excluída deve vir como null");
+    assertEquals("Aluno não encontrado", linhas.get(1).getNomeAluno());
+    assertEquals("Cálculo I", linhas.get(1).getNomeDisciplina());
+    assertEquals("João Silva", linhas.get(2).getNomeAluno());
+    assertEquals("Disciplina não encontrada", linhas.get(2).getNomeDisciplina());
+    assertEquals("Professor não encontrado", linhas.get(2).getNomeProfessor());
+    assertNull(linhas.get(3), "Id que nunca existiu deve vir como null");
+
+    assertEquals(2, consulta.listarLinhas().size(), "Listagem completa não deve incluir a excluída");
+  }
+}
@@ -0,0 +1,129 @@
+import dao.AlunoDAO;
+import dao.DisciplinaDAO;
+import dao.MatriculaDAO;
+import dao.ProfessorDAO;
+import importacao.ImportadorCsv;
+import importacao.ResultadoImportacao;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Testes da importação de CSV em blocos.
+ */
+public class ImportacaoTest {
+
+  @TempDir
+  Path pasta;
+
+  private AlunoDAO alunoDAO;
+  private ProfessorDAO professorDAO;
+  private DisciplinaDAO disciplinaDAO;
+  private MatriculaDAO matriculaDAO;
+  private ImportadorCsv importador;
+
+  @BeforeEach
+  public void setUp() {
+    limparArquivosDados();
+    alunoDAO = new AlunoDAO();
+    professorDAO = new ProfessorDAO();
+    disciplinaDAO = new DisciplinaDAO();
+    matriculaDAO = new MatriculaDAO();
+    importador = new ImportadorCsv(alunoDAO, professorDAO, disciplinaDAO, matriculaDAO);
+    // Blocos pequenos para passar por vários blocos e pelo limite de blocos em andamento
+    importador.setTamanhoLote(7);
+    importador.setThreads(2);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    limparArquivosDados();
+  }
+
+  private void limparArquivosDados() {
+    new File("dados").mkdirs();
+    new File("dados/alunos.txt").delete();
+    new File("dados/professores.txt").delete();
+    new File("dados/disciplinas.txt").delete();
+    new File("dados/matriculas.txt").delete();
+  }
+
+  private Path csv(String nome, List<String> linhas) throws IOException {
+    Path arquivo = pasta.resolve(nome);
+    Files.write(arquivo, linhas, StandardCharsets.UTF_8);
+    return arquivo;
+  }
+
+  @Test
+  @DisplayName("Importa alunos em blocos, recusando linhas inválidas e duplicadas")
+  public void testImportarAlunos() throws IOException {
+    List<String> linhas = new ArrayList<>();
+    linhas.add("Nome,Matrícula,E-mail,Telefone");
+    for (int i = 0; i < 100; i++) {
+      linhas.add("Aluno " + i + ",A" + i + ",a" + i + "@email.com,(11) 0000-" + i);
+    }
+    linhas.add("\"Silva, Maria\",A200,maria@email.com,(11) 1111-1111");
+    linhas.add("Sem Matricula,,x@email.com,(11) 2222-2222");
+    linhas.add("Repetido,A5,r@email.com,(11) 3333-3333");
+    linhas.add("Com;ponto,A201,p@email.com,(11) 4444-4444");
+
+    List<Long> progresso = new ArrayList<>();
+    importador.setAoProgredir(resultado -> progresso.add(resultado.getLinhasLidas()));
+    ResultadoImportacao resultado = importador.importarAlunos(csv("alunos.csv", linhas));
+
+    assertEquals(104, resultado.getLinhasLidas());
+    assertEquals(101, resultado.getImportadas());
+    assertEquals(3, resultado.getRejeitadas());
+    assertTrue(resultado.getErros().contains("Linha 103: Matrícula é obrigatória!"), resultado.getErros().toString());
+    assertTrue(resultado.getErros().contains("Linha 104: Matrícula já existe!"), resultado.getErros().toString());
+    assertEquals(15, progresso.size(), "Um aviso de progresso por bloco de 7 linhas");
+    assertTrue(resultado.getLinhasPorSegundo() > 0);
+
+    assertEquals(101, alunoDAO.listarTodos().size());
+    assertEquals("Silva, Maria", alunoDAO.buscarPorMatricula("A200").getNome(), "Campo entre aspas mantém a vírgula");
+  }
+
+  @Test
+  @DisplayName("Resolve professor, aluno e disciplina pelas chaves naturais")
+  public void testImportarComChavesEstrangeiras() throws IOException {
+    importador.importarProfessores(csv("professores.csv", List.of(
+        "nome;identificador;email;departamento",
+        "Maria Santos;PROF001;maria@email.com;Computação")));
+    importador.importarAlunos(csv("alunos.csv", List.of(
+        "nome,matricula,email,telefone",
+        "João Silva,2023001,joao@email.com,(11) 99999-9999")));
+
+    ResultadoImportacao disciplinas = importador.importarDisciplinas(csv("disciplinas.csv", List.of(
+        "nome,codigo,carga_horaria,professor,semestre",
+        "POO,POO001,60,PROF001,2024.1",
+        "BD,BD001,sessenta,PROF001,2024.1",
+        "ED,ED001,60,PROF999,2024.1")));
+    assertEquals(1, disciplinas.getImportadas());
+    assertEquals(List.of("Linha 3: Carga horária deve ser um número válido!", "Linha 4: Professor não encontrado: PROF999"),
+        disciplinas.getErros());
+    assertEquals(professorDAO.buscarPorIdentificador("PROF001").getId(),
+        disciplinaDAO.buscarPorCodigo("POO001").getProfessorId());
+
+    ResultadoImportacao matriculas = importador.importarMatriculas(csv("matriculas.csv", List.of(
+        "aluno,disciplina,data,status",
+        "2023001,POO001,01/02/2024,",
+        "2023001,POO001,02/02/2024,ATIVA",
+        "2023001,POO001,03/02/2024,concluida",
+        "2023001,POO001,2024-02-04,ATIVA",
+        "9999999,POO001,01/02/2024,ATIVA")));
+    assertEquals(2, matriculas.getImportadas());
+    assertEquals(3, matriculas.getRejeitadas());
+    assertTrue(matriculas.getErros().contains("Linha 3: Já existe uma matrícula ativa para este aluno nesta disciplina!"),
+        matriculas.getErros().toString());
+    int alunoId = alunoDAO.buscarPorMatricula("2023001").getId();
+    assertEquals(2, matriculaDAO.buscarPorAluno(alunoId).size());
+  }
+}
@@ -0,0 +1,566 @@
+import classes.Aluno;
+import classes.Disciplina;
+import classes.Matricula;
+import classes.Professor;
+import dao.Alteracao;
+import dao.AlunoDAO;
+import dao.Cursor;
+import dao.DisciplinaDAO;
+import dao.Pagina;
+import dao.MatriculaDAO;
+import dao.ProfessorDAO;
+import gui.ModeloComboBusca;
+import gui.ModeloTabelaSobDemanda;
+import gui.TarefasEmSegundoPlano;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
+import javax.swing.event.TableModelEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Testes dos índices mantidos pelos DAOs em salvar/excluir e das consultas sobre eles.
+ */
+public class IndicesTest {
+
+  private MatriculaDAO matriculaDAO;
+
+  @BeforeEach
+  public void setUp() {
+    limparArquivosDados();
+    matriculaDAO = new MatriculaDAO();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    limparArquivosDados();
+  }
+
+  private void limparArquivosDados() {
+    new File("dados").mkdirs();
+    new File("dados/alunos.txt").delete();
+    new File("dados/professores.txt").delete();
+    new File("dados/disciplinas.txt").delete();
+    new File("dados/matriculas.txt").delete();
+  }
+
+  @Test
+  @DisplayName("Índice de matrículas ativas acompanha alteração de status e exclusão")
+  public void testIndiceMatriculaAtiva() {
+    Matricula matricula = new Matricula(1, 2, LocalDate.now(), "ATIVA");
+    matriculaDAO.salvar(matricula);
+    assertTrue(matriculaDAO.existeMatriculaAtiva(1, 2), "Matrícula ativa deve ser encontrada");
+    assertFalse(matriculaDAO.existeMatriculaAtiva(2, 1), "Par invertido não deve ser encontrado");
+
+    // Mesma instância alterada e salva de novo
+    matricula.setStatus("CANCELADA");
+    matriculaDAO.salvar(matricula);
+    assertFalse(matriculaDAO.existeMatricula(1, 2), "Matrícula cancelada não conta como ativa");
+
+    matricula.setStatus("ATIVA");
+    matriculaDAO.salvar(matricula);
+    assertTrue(matriculaDAO.existeMatricula(1, 2), "Matrícula reativada deve voltar ao índice");
+
+    matriculaDAO.excluir(matricula.getId());
+    assertFalse(matriculaDAO.existeMatriculaAtiva(1, 2), "Matrícula excluída deve sair do índice");
+  }
+
+  @Test
+  @DisplayName("Índices por aluno e por disciplina retornam só as matrículas da chave")
+  public void testIndicesPorAlunoEDisciplina() {
+    Matricula m1 = new Matricula(1, 10, LocalDate.now(), "ATIVA");
+    Matricula m2 = new Matricula(1, 20, LocalDate.now(), "CONCLUIDA");
+    Matricula m3 = new Matricula(2, 10, LocalDate.now(), "ATIVA");
+    matriculaDAO.salvar(m1);
+    matriculaDAO.salvar(m2);
+    matriculaDAO.salvar(m3);
+
+    List<Matricula> doAluno = matriculaDAO.buscarPorAluno(1);
+    assertEquals(2, doAluno.size(), "Aluno 1 deve ter 2 matrículas");
+    assertEquals(2, matriculaDAO.buscarPorDisciplina(10).size(), "Disciplina 10 deve ter 2 matrículas");
+
+    // Troca de disciplina move a matrícula entre as chaves
+    m1.setDisciplinaId(30);
+    matriculaDAO.salvar(m1);
+    assertEquals(1, matriculaDAO.buscarPorDisciplina(10).size(), "Disciplina 10 deve ficar com 1 matrícula");
+    assertEquals(m1.getId(), matriculaDAO.buscarPorDisciplina(30).get(0).getId(), "Matrícula deve estar na disciplina 30");
+
+    matriculaDAO.excluir(m3.getId());
+    assertTrue(matriculaDAO.buscarPorAluno(2).isEmpty(), "Aluno 2 não deve ter matrículas");
+  }
+
+  @Test
+  @DisplayName("Índice único busca pela matrícula e recusa duplicidade ao salvar")
+  public void testIndiceUnicoMatriculaAluno() {
+    AlunoDAO alunoDAO = new AlunoDAO();
+    Aluno joao = new Aluno("João Silva", "2023001", "joao@email.com", "(11) 99999-9999");
+    Aluno pedro = new Aluno("Pedro Costa", "2023002", "pedro@email.com", "(11) 55555-5555");
+    alunoDAO.salvar(joao);
+    alunoDAO.salvar(pedro);
+
+    assertEquals(joao.getId(), alunoDAO.buscarPorMatricula("2023001").getId(), "Deve achar o aluno pela matrícula");
+    assertNull(alunoDAO.buscarPorMatricula("9999999"), "Matrícula inexistente deve retornar null");
+
+    Aluno copia = new Aluno(pedro.getId(), "Pedro Costa", "2023001", "pedro@email.com", "(11) 55555-5555");
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> alunoDAO.salvar(copia));
+    assertEquals("Matrícula já existe!", exception.getMessage(), "Deve recusar matrícula de outro aluno");
+
+    // Alterar a própria matrícula libera a antiga
+    pedro.setMatricula("2023003");
+    alunoDAO.salvar(pedro);
+    assertFalse(alunoDAO.existeMatricula("2023002"), "Matrícula antiga deve ser liberada");
+    assertTrue(alunoDAO.existeMatricula("2023003"), "Nova matrícula deve estar no índice");
+  }
+
+  @Test
+  @DisplayName("Lote é validado contra o índice e dentro de si mesmo antes de gravar")
+  public void testSalvarLote() throws IOException {
+    AlunoDAO alunoDAO = new AlunoDAO();
+    alunoDAO.salvar(new Aluno("João Silva", "2023001", "joao@email.com", "(11) 99999-9999"));
+
+    List<Aluno> repetidoNoLote = List.of(
+        new Aluno("Ana Souza", "2023002", "ana@email.com", "(11) 88888-8888"),
+        new Aluno("Ana Clara", "2023002", "clara@email.com", "(11) 77777-7777"));
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> alunoDAO.salvarLote(repetidoNoLote));
+    assertEquals("Matrícula já existe!", exception.getMessage());
+    assertEquals(1, alunoDAO.listarTodos().size(), "Lote recusado não deve gravar nenhum aluno");
+    for (Aluno aluno : repetidoNoLote) {
+      assertEquals(0, aluno.getId(), "Aluno do lote recusado deve voltar a ficar sem id");
+    }
+    assertFalse(alunoDAO.existeMatricula("2023002"), "Índice deve voltar ao estado gravado");
+
+    List<Aluno> lote = List.of(
+        new Aluno("Ana Souza", "2023002", "ana@email.com", "(11) 88888-8888"),
+        new Aluno("Pedro Costa", "2023003", "pedro@email.com", "(11) 55555-5555"));
+    alunoDAO.salvarLote(lote);
+    assertEquals(3, Files.readAllLines(new File("dados/alunos.txt").toPath()).size(), "Lote deve estar no arquivo");
+    assertNotEquals(lote.get(0).getId(), lote.get(1).getId(), "Cada aluno do lote recebe um id");
+
+    alunoDAO.excluirLote(List.of(lote.get(0).getId(), lote.get(1).getId(), 999999));
+    assertEquals(1, alunoDAO.listarTodos().size(), "Só o primeiro aluno deve sobrar");
+    assertFalse(alunoDAO.existeMatricula("2023003"), "Excluídos devem sair do índice");
+  }
+
+  @Test
+  @DisplayName("Stream percorre um retrato e para no primeiro resultado")
+  public void testStreamDeMatriculas() {
+    for (int i = 1; i <= 50; i++) {
+      matriculaDAO.salvar(new Matricula(i, 1, LocalDate.now(), i % 2 == 0 ? "ATIVA" : "CANCELADA"));
+    }
+
+    AtomicInteger visitadas = new AtomicInteger();
+    boolean encontrou = matriculaDAO.stream()
+        .peek(matricula -> visitadas.incrementAndGet())
+        .anyMatch(matricula -> matricula.getAlunoId() == 3);
+    assertTrue(encontrou);
+    assertEquals(3, visitadas.get(), "anyMatch deve parar na terceira matrícula");
+
+    // Gravar durante a iteração não afeta o stream já aberto
+    Stream<Matricula> aberto = matriculaDAO.stream();
+    matriculaDAO.salvar(new Matricula(99, 1, LocalDate.now(), "ATIVA"));
+    assertEquals(50, aberto.count(), "Stream aberto antes da gravação vê o retrato anterior");
+
+    List<Integer> ativas = matriculaDAO.stream()
+        .filter(matricula -> "ATIVA".equals(matricula.getStatus()))
+        .map(Matricula::getAlunoId)
+        .collect(Collectors.toList());
+    assertEquals(26, ativas.size(), "25 ativas da carga mais a nova");
+    assertTrue(ativas.contains(99));
+  }
+
+  @Test
+  @DisplayName("Páginas por id e por nome seguem o cursor sem repetir nem pular linhas")
+  public void testPaginacaoPorCursor() {
+    AlunoDAO alunoDAO = new AlunoDAO();
+    List<Aluno> alunos = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      // Nomes fora da ordem de inclusão, com maiúsculas misturadas
+      alunos.add(new Aluno((i % 2 == 0 ? "aluno " : "Aluno ") + (char) ('z' - i), "P" + i, "p@email.com", "(11) 0000-0000"));
+    }
+    alunoDAO.salvarLote(alunos);
+
+    List<Integer> ids = new ArrayList<>();
+    int ultimoId = 0;
+    Pagina<Aluno> pagina;
+    do {
+      pagina = alunoDAO.listar(ultimoId, 10);
+      for (Aluno aluno : pagina.getItens()) {
+        ids.add(aluno.getId());
+        ultimoId = aluno.getId();
+      }
+    } while (pagina.temProxima());
+    assertEquals(25, ids.size());
+    for (int i = 1; i < ids.size(); i++) {
+      assertTrue(ids.get(i) > ids.get(i - 1), "Ids devem vir em ordem crescente");
+    }
+
+    Pagina<Aluno> primeira = alunoDAO.listar(AlunoDAO.Ordem.NOME, null, 10);
+    assertEquals("aluno b", primeira.getItens().get(0).getNome().toLowerCase(), "Menor nome deve vir primeiro");
+    Cursor cursor = primeira.getProximo();
+
+    // Alterações entre páginas: um novo aluno antes do cursor e a exclusão de um já listado
+    alunoDAO.salvar(new Aluno("Aaa Novo", "P100", "p@email.com", "(11) 0000-0000"));
+    alunoDAO.excluir(primeira.getItens().get(0).getId());
+
+    List<String> nomes = new ArrayList<>();
+    primeira.getItens().forEach(aluno -> nomes.add(aluno.getNome().toLowerCase()));
+    while (cursor != null) {
+      Pagina<Aluno> seguinte = alunoDAO.listar(AlunoDAO.Ordem.NOME, cursor, 10);
+      seguinte.getItens().forEach(aluno -> nomes.add(aluno.getNome().toLowerCase()));
+      cursor = seguinte.getProximo();
+    }
+    assertEquals(25, nomes.size(), "Nenhuma linha repetida ou pulada");
+    List<String> ordenados = new ArrayList<>(nomes);
+    ordenados.sort(null);
+    assertEquals(ordenados, nomes, "Nomes em ordem alfabética sem diferenciar maiúsculas");
+
+    assertThrows(IllegalArgumentException.class,
+        () -> alunoDAO.listar(AlunoDAO.Ordem.MATRICULA, primeira.getProximo(), 10), "Cursor de outra ordenação");
+  }
+
+  @Test
+  @DisplayName("Tabela sob demanda guarda só os ids e busca as linhas em blocos")
+  public void testModeloTabelaSobDemanda() {
+    AlunoDAO alunoDAO = new AlunoDAO();
+    List<Aluno> alunos = new ArrayList<>();
+    for (int i = 0; i < 450; i++) {
+      alunos.add(new Aluno("Aluno " + i, "T" + i, "t" + i + "@email.com", "(11) 0000-0000"));
+    }
+    alunoDAO.salvarLote(alunos);
+
+    AtomicInteger buscas = new AtomicInteger();
+    ModeloTabelaSobDemanda<Aluno> modelo = new ModeloTabelaSobDemanda<>(new String[]{"ID", "Nome"},
+        () -> alunoDAO.listarIds(AlunoDAO.Ordem.ID),
+        ids -> {
+          buscas.incrementAndGet();
+          return alunoDAO.buscarPorIds(ids);
+        },
+        (aluno, coluna) -> coluna == 0 ? aluno.getId() : aluno.getNome());
+    modelo.recarregar();
+
+    assertEquals(450, modelo.getRowCount());
+    assertEquals(0, buscas.get(), "Nenhuma linha buscada antes de ser exibida");
+    assertEquals("Aluno 0", modelo.getValueAt(0, 1));
+    assertEquals("Aluno 5", modelo.getValueAt(5, 1));
+    assertEquals(1, buscas.get(), "Linhas do mesmo bloco vêm de uma única busca");
+    assertEquals(alunos.get(449).getId(), modelo.getValueAt(449, 0));
+    assertEquals(2, buscas.get());
+
+    // Excluída depois da recarga: a linha continua no lugar, vazia, até a próxima recarga
+    alunoDAO.excluir(alunos.get(300).getId());
+    assertNull(modelo.getLinha(300));
+    assertNull(modelo.getValueAt(300, 1));
+    modelo.recarregar();
+    assertEquals(449, modelo.getRowCount());
+    assertEquals("Aluno 301", modelo.getValueAt(300, 1));
+  }
+
+  @Test
+  @DisplayName("Ouvintes recebem inclusão, alteração e exclusão, mas não gravações recusadas")
+  public void testAvisosDeAlteracao() {
+    AlunoDAO alunoDAO = new AlunoDAO();
+    alunoDAO.listarTodos();
+    List<String> avisos = new ArrayList<>();
+    Consumer<Alteracao<Aluno>> ouvinte = alteracao -> avisos.add(alteracao.getTipo() + ":" + alteracao.getId());
+    alunoDAO.adicionarOuvinte(ouvinte);
+
+    Aluno aluno = new Aluno("Ana", "E1", "ana@email.com", "(11) 0000-0000");
+    alunoDAO.salvar(aluno);
+    aluno.setNome("Ana Maria");
+    new AlunoDAO().salvar(aluno);
+    assertThrows(IllegalArgumentException.class,
+        () -> alunoDAO.salvar(new Aluno("Outra", "E1", "o@email.com", "(11) 0000-0000")));
+    alunoDAO.excluir(aluno.getId());
+    alunoDAO.excluir(aluno.getId());
+    int id = aluno.getId();
+    assertEquals(List.of("INCLUSAO:" + id, "ALTERACAO:" + id, "EXCLUSAO:" + id), avisos,
+        "Recusa e exclusão repetida não geram aviso; outra instância do DAO também avisa");
+
+    // Arquivo trocado por fora: um único aviso de recarga
+    alunoDAO.salvar(new Aluno("Bia", "E2", "bia@email.com", "(11) 0000-0000"));
+    avisos.clear();
+    new File("dados/alunos.txt").delete();
+    alunoDAO.listarTodos();
+    assertEquals(List.of("RECARGA:0"), avisos);
+
+    alunoDAO.removerOuvinte(ouvinte);
+    alunoDAO.salvar(new Aluno("Caio", "E3", "caio@email.com", "(11) 0000-0000"));
+    assertEquals(1, avisos.size(), "Ouvinte removido não recebe mais avisos");
+  }
+
+  @Test
+  @DisplayName("Tabela aplica só a linha incluída, alterada ou excluída")
+  public void testModeloAplicaAlteracoes() throws Exception {
+    AlunoDAO alunoDAO = new AlunoDAO();
+    List<Aluno> alunos = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      alunos.add(new Aluno("Aluno " + i, "M" + i, "m" + i + "@email.com", "(11) 0000-0000"));
+    }
+    alunoDAO.salvarLote(alunos);
+
+    ModeloTabelaSobDemanda<Aluno> modelo = new ModeloTabelaSobDemanda<>(new String[]{"ID", "Nome"},
+        () -> alunoDAO.listarIds(AlunoDAO.Ordem.ID),
+        alunoDAO::buscarPorIds,
+        (aluno, coluna) -> coluna == 0 ? aluno.getId() : aluno.getNome());
+    List<String> eventos = new ArrayList<>();
+    SwingUtilities.invokeAndWait(() -> {
+      modelo.recarregar();
+      modelo.getValueAt(0, 1);
+      modelo.getValueAt(299, 1);
+      modelo.addTableModelListener(e -> eventos.add(e.getType() + ":" + e.getFirstRow() + "-" + e.getLastRow()));
+    });
+    Consumer<Alteracao<Aluno>> ouvinte = modelo::aplicar;
+    alunoDAO.adicionarOuvinte(ouvinte);
+    try {
+      Aluno novo = new Aluno("Novo", "M300", "n@email.com", "(11) 0000-0000");
+      alunoDAO.salvar(novo);
+      Aluno primeiro = alunos.get(0);
+      primeiro.setNome("Primeiro");
+      alunoDAO.salvar(primeiro);
+      alunoDAO.excluir(alunos.get(10).getId());
+      SwingUtilities.invokeAndWait(() -> { });
+
+      assertEquals(List.of(
+          TableModelEvent.INSERT + ":300-300",
+          TableModelEvent.UPDATE + ":0-0",
+          TableModelEvent.DELETE + ":10-10"), eventos);
+      SwingUtilities.invokeAndWait(() -> {
+        assertEquals(300, modelo.getRowCount());
+        assertEquals("Primeiro", modelo.getValueAt(0, 1));
+        assertEquals("Aluno 11", modelo.getValueAt(10, 1));
+        assertEquals("Novo", modelo.getValueAt(299, 1));
+      });
+    } finally {
+      alunoDAO.removerOuvinte(ouvinte);
+    }
+  }
+
+  @Test
+  @DisplayName("Linha alterada buscada em segundo plano é aplicada mesmo com outra inclusão no meio")
+  public void testModeloAplicaLinhaBuscadaEmSegundoPlano() throws Exception {
+    AlunoDAO alunoDAO = new AlunoDAO();
+    List<Aluno> alunos = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      alunos.add(new Aluno("Aluno " + i, "M" + i, "m" + i + "@email.com", "(11) 0000-0000"));
+    }
+    alunoDAO.salvarLote(alunos);
+
+    CountDownLatch liberarLinha = new CountDownLatch(1);
+    ModeloTabelaSobDemanda<Aluno> modelo = new ModeloTabelaSobDemanda<>(new String[]{"Nome"},
+        () -> alunoDAO.listarIds(AlunoDAO.Ordem.ID),
+        ids -> {
+          if (ids.length == 1) {
+            try {
+              liberarLinha.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+          return alunoDAO.buscarPorIds(ids);
+        },
+        (aluno, coluna) -> aluno.getNome());
+    SwingUtilities.invokeAndWait(() -> {
+      modelo.recarregar();
+      modelo.getLinha(0);
+      modelo.setTarefas(new TarefasEmSegundoPlano(new JProgressBar()));
+    });
+
+    List<Alteracao<Aluno>> avisos = new ArrayList<>();
+    Consumer<Alteracao<Aluno>> ouvinte = avisos::add;
+    alunoDAO.adicionarOuvinte(ouvinte);
+    try {
+      // Outra instância, como a de uma tela de edição: o bloco em memória guarda a antiga
+      Aluno primeiro = alunos.get(0);
+      alunoDAO.salvar(new Aluno(primeiro.getId(), "Editado em outra janela", primeiro.getMatricula(),
+          primeiro.getEmail(), primeiro.getTelefone()));
+      // Inclusão no último bloco, aplicada enquanto a linha alterada está a caminho
+      alunoDAO.salvar(new Aluno("Novo", "M300", "n@email.com", "(11) 0000-0000"));
+    } finally {
+      alunoDAO.removerOuvinte(ouvinte);
+    }
+    SwingUtilities.invokeAndWait(() -> avisos.forEach(modelo::aplicar));
+    liberarLinha.countDown();
+
+    AtomicReference<Object> nome = new AtomicReference<>();
+    for (int tentativa = 0; tentativa < 50; tentativa++) {
+      SwingUtilities.invokeAndWait(() -> nome.set(modelo.getValueAt(0, 0)));
+      if ("Editado em outra janela".equals(nome.get())) {
+        break;
+      }
+      Thread.sleep(100);
+    }
+    assertEquals("Editado em outra janela", nome.get(), "A linha buscada deve chegar ao bloco em memória");
+  }
+
+  @Test
+  @DisplayName("Alteração de outra entidade descarta só os blocos com linhas que a mostram")
+  public void testModeloAtualizaSoLinhasAfetadas() throws Exception {
+    ProfessorDAO professorDAO = new ProfessorDAO();
+    DisciplinaDAO disciplinaDAO = new DisciplinaDAO();
+    Professor maria = new Professor("Maria Santos", "P001", "maria@email.com", "Matemática");
+    Professor jose = new Professor("José Lima", "P002", "jose@email.com", "Física");
+    professorDAO.salvar(maria);
+    professorDAO.salvar(jose);
+    // Primeiro bloco (200 linhas) só com disciplinas da Maria, os outros dois só do José
+    List<Disciplina> disciplinas = new ArrayList<>();
+    for (int i = 0; i < 450; i++) {
+      int professorId = i < 200 ? maria.getId() : jose.getId();
+      disciplinas.add(new Disciplina("Disciplina " + i, "D" + i, 60, professorId, "2024.1"));
+    }
+    disciplinaDAO.salvarLote(disciplinas);
+
+    AtomicInteger buscas = new AtomicInteger();
+    ModeloTabelaSobDemanda<Disciplina> modelo = new ModeloTabelaSobDemanda<>(new String[]{"Nome"},
+        () -> disciplinaDAO.listarIds(DisciplinaDAO.Ordem.ID),
+        ids -> {
+          buscas.incrementAndGet();
+          return disciplinaDAO.buscarPorIds(ids);
+        },
+        (disciplina, coluna) -> disciplina.getNomeDisciplina());
+    List<Alteracao<Professor>> avisos = new ArrayList<>();
+    Consumer<Alteracao<Professor>> ouvinte = avisos::add;
+    professorDAO.adicionarOuvinte(ouvinte);
+    try {
+      SwingUtilities.invokeAndWait(() -> {
+        modelo.recarregar();
+        modelo.getLinha(0);
+        modelo.getLinha(200);
+        modelo.getLinha(400);
+      });
+      assertEquals(3, buscas.get());
+
+      maria.setNome("Maria Souza");
+      professorDAO.salvar(maria);
+      professorDAO.salvar(new Professor("Sem Disciplinas", "P003", "sd@email.com", "Química"));
+      SwingUtilities.invokeAndWait(() -> {
+        for (Alteracao<Professor> aviso : avisos) {
+          modelo.atualizarLinhas(aviso, Disciplina::getProfessorId);
+        }
+        modelo.getLinha(200);
+        modelo.getLinha(400);
+      });
+      assertEquals(3, buscas.get(), "Blocos sem disciplinas da Maria devem continuar em memória");
+      SwingUtilities.invokeAndWait(() -> modelo.getLinha(0));
+      assertEquals(4, buscas.get(), "Bloco com disciplinas da Maria deve ser buscado de novo");
+    } finally {
+      professorDAO.removerOuvinte(ouvinte);
+    }
+  }
+
+  @Test
+  @DisplayName("Chave única repetida em arquivo antigo não impede excluir os dois registros")
+  public void testIndiceUnicoComChaveRepetidaNoArquivo() throws IOException {
+    Files.write(new File("dados/alunos.txt").toPath(), List.of(
+        "1;Ana;2020001;ana@email.com;(11) 0000-0000",
+        "2;Ana Duplicada;2020001;ana2@email.com;(11) 0000-0000"));
+    AlunoDAO alunoDAO = new AlunoDAO();
+    assertEquals(2, alunoDAO.listarTodos().size());
+    assertTrue(alunoDAO.existeMatricula("2020001"));
+
+    alunoDAO.excluir(2);
+    alunoDAO.excluir(1);
+    assertTrue(alunoDAO.listarTodos().isEmpty());
+    assertFalse(alunoDAO.existeMatricula("2020001"));
+    assertTrue(Files.readAllLines(new File("dados/alunos.txt").toPath()).isEmpty(),
+        "Memória e arquivo devem continuar iguais");
+  }
+
+  @Test
+  @DisplayName("Busca por texto ignora acentos, busca prefixo ou trecho e acompanha as gravações")
+  public void testBuscaPorTexto() {
+    AlunoDAO alunoDAO = new AlunoDAO();
+    Aluno joao = new Aluno("João da Silva", "2024001", "joao@email.com", "(11) 0000-0000");
+    Aluno maria = new Aluno("Maria Joana", "2024002", "maria@email.com", "(11) 0000-0000");
+    Aluno ana = new Aluno("Ana Paula", "2024003", "ana@email.com", "(11) 0000-0000");
+    alunoDAO.salvarLote(List.of(joao, maria, ana));
+
+    assertEquals(List.of("João da Silva", "Maria Joana"), nomes(alunoDAO.buscarPorTexto("JOA", 10)),
+        "Sem acento e maiúsculas; quem começa pelo texto vem primeiro");
+    assertEquals(List.of("Ana Paula", "Maria Joana"), nomes(alunoDAO.buscarPorTexto("ana", 10)),
+        "Trecho no meio da palavra também encontra");
+    assertEquals(List.of("João da Silva"), nomes(alunoDAO.buscarPorTexto("jo si", 10)),
+        "Todos os termos precisam aparecer");
+    assertEquals(List.of("Ana Paula"), nomes(alunoDAO.buscarPorTexto("pa", 10)),
+        "Termos curtos só como início de palavra");
+    assertEquals(List.of("Maria Joana"), nomes(alunoDAO.buscarPorTexto("2024002", 10)));
+    assertEquals(1, alunoDAO.buscarPorTexto("a", 1).size());
+    assertTrue(alunoDAO.buscarPorTexto("xyz", 10).isEmpty());
+
+    maria.setNome("Mariana");
+    alunoDAO.salvar(maria);
+    alunoDAO.excluir(ana.getId());
+    assertEquals(List.of("João da Silva"), nomes(alunoDAO.buscarPorTexto("joa", 10)));
+    assertEquals(List.of("Mariana"), nomes(alunoDAO.buscarPorTexto("ana", 10)));
+
+    // O combo seleciona pelo id sem ter o aluno entre os itens mostrados
+    ModeloComboBusca<Aluno> modelo = new ModeloComboBusca<>(Aluno.class, alunoDAO::buscarPorTexto,
+        alunoDAO::buscarPorId, Aluno::toDisplayString);
+    modelo.selecionarPorId(joao.getId());
+    assertEquals(joao.getId(), ((Aluno) modelo.getSelectedItem()).getId());
+    assertEquals(0, modelo.getSize());
+    modelo.selecionarPorId(ana.getId());
+    assertNull(modelo.getSelectedItem(), "Aluno excluído não fica selecionado");
+  }
+
+  @Test
+  @DisplayName("Pesquisa por palavras em vários campos, com pontuação e atualizada a cada gravação")
+  public void testPesquisaPorPalavras() {
+    ProfessorDAO professorDAO = new ProfessorDAO();
+    Professor jose = new Professor("José Antônio Souza", "P1", "jose.souza@uni.br", "Computação");
+    Professor maria = new Professor("Maria Souza", "P2", "maria@uni.br", "Matemática");
+    Professor carlos = new Professor("Carlos Lima", "P3", "carlos.jose@uni.br", "Computação Aplicada");
+    professorDAO.salvar(jose);
+    professorDAO.salvar(maria);
+    professorDAO.salvar(carlos);
+
+    assertEquals(List.of("José Antônio Souza", "Carlos Lima"), nomesProfessores(professorDAO.pesquisar("JOSE", 10)),
+        "Nome pesa mais que email");
+    assertEquals(List.of("José Antônio Souza", "Maria Souza"), nomesProfessores(professorDAO.pesquisar("souza", 10)),
+        "A palavra em mais campos soma pontos");
+    assertEquals(List.of("Maria Souza"), nomesProfessores(professorDAO.pesquisar("souza mat", 10)),
+        "Todas as palavras precisam aparecer, inteiras ou como início de palavra");
+    assertEquals(List.of("José Antônio Souza", "Carlos Lima"), nomesProfessores(professorDAO.pesquisar("computação", 10)));
+    assertEquals(1, professorDAO.pesquisar("uni", 1).size());
+    assertTrue(professorDAO.pesquisar("fisica", 10).isEmpty());
+
+    carlos.setDepartamento("Física");
+    professorDAO.salvar(carlos);
+    professorDAO.excluir(jose.getId());
+    assertEquals(List.of("Carlos Lima"), nomesProfessores(professorDAO.pesquisar("fisica", 10)));
+    assertTrue(professorDAO.pesquisar("computacao", 10).isEmpty());
+    assertEquals(List.of("Carlos Lima"), nomesProfessores(professorDAO.pesquisar("jose", 10)));
+
+    DisciplinaDAO disciplinaDAO = new DisciplinaDAO();
+    disciplinaDAO.salvar(new Disciplina("Cálculo I", "MAT101", 60, maria.getId(), "2024.1"));
+    disciplinaDAO.salvar(new Disciplina("Álgebra Linear", "MAT102", 60, maria.getId(), "2024.1"));
+    assertEquals(2, disciplinaDAO.pesquisar("mat1", 10).size());
+    assertEquals("Álgebra Linear", disciplinaDAO.pesquisar("algebra", 10).get(0).getNomeDisciplina());
+
+    AlunoDAO alunoDAO = new AlunoDAO();
+    alunoDAO.salvar(new Aluno("João Pedro", "A1", "jp@email.com", "(11) 0000-0000"));
+    alunoDAO.salvar(new Aluno("Pedro Alves", "A2", "joao.alves@email.com", "(11) 0000-0000"));
+    assertEquals(List.of("João Pedro", "Pedro Alves"), nomes(alunoDAO.pesquisar("joao", 10)));
+  }
+
+  private static List<String> nomesProfessores(List<Professor> professores) {
+    return professores.stream().map(Professor::getNome).collect(Collectors.toList());
+  }
+
+  private static List<String> nomes(List<Aluno> alunos) {
+    return alunos.stream().map(Aluno::getNome).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,60 @@
+import classes.Disciplina;
+import classes.FormatoData;
+import classes.LeitorCampos;
+import classes.Matricula;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+
+/**
+ * Testes da leitura de campos das linhas dos arquivos de dados e do formato de data.
+ */
+public class LeitorCamposTest {
+
+  @Test
+  @DisplayName("Lê inteiros, textos e datas em sequência")
+  public void testLeituraEmSequencia() {
+    LeitorCampos campos = new LeitorCampos("12;-3;texto;05/03/2024;");
+
+    assertEquals(12, campos.proximoInt());
+    assertEquals(-3, campos.proximoInt());
+    assertEquals("texto", campos.proximoTexto());
+    assertEquals(LocalDate.of(2024, 3, 5), campos.proximaData());
+    assertEquals("", campos.proximoTexto(), "Campo final vazio deve ser lido como texto vazio");
+    assertThrows(IllegalArgumentException.class, campos::proximoTexto, "Não há mais campos");
+  }
+
+  @Test
+  @DisplayName("Data fora do calendário segue a regra do DateTimeFormatter")
+  public void testDataForaDoCalendario() {
+    assertEquals(LocalDate.of(2023, 2, 28), new LeitorCampos("31/02/2023").proximaData());
+    assertThrows(RuntimeException.class, () -> new LeitorCampos("32/13/2025").proximaData());
+  }
+
+  @Test
+  @DisplayName("fromString continua compatível com toString")
+  public void testIdaEVolta() {
+    Matricula matricula = Matricula.fromString(new Matricula(7, 1, 2, LocalDate.of(2020, 1, 1), "ATIVA").toString());
+    assertEquals(7, matricula.getId());
+    assertEquals(LocalDate.of(2020, 1, 1), matricula.getDataMatricula());
+    assertEquals("ATIVA", matricula.getStatus());
+
+    Disciplina disciplina = Disciplina.fromString("3;POO;POO001;60;2;2024.1");
+    assertEquals(60, disciplina.getCargaHoraria());
+    assertEquals(2, disciplina.getProfessorId());
+    assertEquals("2024.1", disciplina.getSemestre());
+  }
+
+  @Test
+  @DisplayName("FormatoData produz o mesmo texto que o DateTimeFormatter")
+  public void testFormatoData() {
+    LocalDate[] datas = { LocalDate.of(2024, 1, 5), LocalDate.of(1999, 12, 31), LocalDate.of(999, 7, 4) };
+    for (LocalDate data : datas) {
+      String esperado = data.format(FormatoData.FORMATADOR);
+      assertEquals(esperado, FormatoData.formatar(data));
+      assertEquals(data, FormatoData.converter(esperado));
+    }
+    assertThrows(RuntimeException.class, () -> FormatoData.converter("2024-01-05"));
+  }
+}
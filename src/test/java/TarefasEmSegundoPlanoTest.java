@@ -0,0 +1,83 @@
+import gui.TarefasEmSegundoPlano;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Testes das tarefas que as telas executam fora da thread de eventos do Swing.
+ */
+public class TarefasEmSegundoPlanoTest {
+
+  private JProgressBar progresso;
+  private TarefasEmSegundoPlano tarefas;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    SwingUtilities.invokeAndWait(() -> {
+      progresso = new JProgressBar();
+      tarefas = new TarefasEmSegundoPlano(progresso);
+    });
+  }
+
+  @Test
+  @DisplayName("Novo carregamento com a mesma chave descarta o resultado do anterior")
+  public void testCarregamentoDescartaAnterior() throws Exception {
+    CountDownLatch liberarAntigo = new CountDownLatch(1);
+    CountDownLatch entregue = new CountDownLatch(1);
+    List<String> resultados = Collections.synchronizedList(new ArrayList<>());
+
+    SwingUtilities.invokeAndWait(() -> {
+      tarefas.carregar("tabela", () -> {
+        liberarAntigo.await();
+        return "antigo";
+      }, resultados::add);
+      assertTrue(progresso.isVisible(), "Barra visível durante o carregamento");
+      tarefas.carregar("tabela", () -> "novo", resultado -> {
+        resultados.add(resultado);
+        entregue.countDown();
+      });
+    });
+    assertTrue(entregue.await(5, TimeUnit.SECONDS));
+    liberarAntigo.countDown();
+
+    SwingUtilities.invokeAndWait(() -> {
+      assertEquals(List.of("novo"), resultados);
+      assertFalse(tarefas.ocupado());
+      assertFalse(progresso.isVisible(), "Barra escondida ao terminar");
+    });
+  }
+
+  @Test
+  @DisplayName("Gravação desabilita os botões e entrega a exceção do DAO")
+  public void testGravacaoComFalha() throws Exception {
+    CountDownLatch liberar = new CountDownLatch(1);
+    CountDownLatch falhou = new CountDownLatch(1);
+    AtomicReference<Exception> erro = new AtomicReference<>();
+    JButton salvar = new JButton("Salvar");
+
+    SwingUtilities.invokeAndWait(() -> {
+      tarefas.desabilitarAoGravar(salvar);
+      tarefas.gravar(() -> {
+        liberar.await();
+        throw new IllegalArgumentException("Matrícula já existe!");
+      }, () -> fail("Gravação não deveria concluir"), e -> {
+        erro.set(e);
+        falhou.countDown();
+      });
+      assertFalse(salvar.isEnabled(), "Botão desabilitado durante a gravação");
+    });
+    liberar.countDown();
+    assertTrue(falhou.await(5, TimeUnit.SECONDS));
+
+    assertTrue(erro.get() instanceof IllegalArgumentException);
+    assertEquals("Matrícula já existe!", erro.get().getMessage());
+    SwingUtilities.invokeAndWait(() -> assertTrue(salvar.isEnabled(), "Botão volta a ficar habilitado"));
+  }
+}